@@ -0,0 +1,59 @@
+package com.br.calculator.cache;
+
+import com.br.calculator.entities.User;
+import com.br.calculator.enums.UserStatusEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building and hashing the old {@code (User, Pageable)} cache key, which hashes every
+ * field of the entity including the password hash, with {@link UserCacheKey}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheKeyBenchmark {
+
+    private final UserCacheKeyGenerator keyGenerator = new UserCacheKeyGenerator(new UserCacheGenerations());
+    private User user;
+    private Pageable pageable;
+    private Method method;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        user = new User(42L, "benchmark_user", "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8B8m4l6x6z8yqYQ9Ql1u4Dm", UserStatusEnum.ACTIVE);
+        pageable = PageRequest.of(3, 10);
+        method = Object.class.getMethod("toString");
+    }
+
+    @Benchmark
+    public int entityKeyHash() {
+        return new SimpleKey(user, pageable).hashCode();
+    }
+
+    @Benchmark
+    public int userCacheKeyHash() {
+        return keyGenerator.generate(this, method, user, pageable).hashCode();
+    }
+
+    @Benchmark
+    public boolean entityKeyEquals() {
+        return new SimpleKey(user, pageable).equals(new SimpleKey(user, pageable));
+    }
+
+    @Benchmark
+    public boolean userCacheKeyEquals() {
+        return UserCacheKey.of(user.getId(), 1L, pageable).equals(UserCacheKey.of(user.getId(), 1L, pageable));
+    }
+}
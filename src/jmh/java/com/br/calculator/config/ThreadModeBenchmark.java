@@ -0,0 +1,109 @@
+package com.br.calculator.config;
+
+import com.br.calculator.dto.OperationRequest;
+import com.br.calculator.engine.CalculationEngine;
+import com.br.calculator.entities.User;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.enums.UserStatusEnum;
+import com.br.calculator.services.OperationService;
+import com.br.calculator.services.StubbedOperationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load comparison of the request thread modes on the real calculation path: 1000 concurrent
+ * clients each run {@link OperationService#executeOperation} (validation, reservation, metrics,
+ * coalescing and routing) against an engine that blocks for {@code blockingMillis}, like the
+ * Lambda round-trip. The ledger and caches are stubbed, so the database is left out. The
+ * platform mode uses a pool the size of Tomcat's default worker pool (200 threads). Pinned
+ * virtual threads are reported on the benchmark's output (jdk.tracePinnedThreads).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ThreadModeBenchmark {
+
+    private static final int CLIENTS = 1000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"20"})
+    private long blockingMillis;
+
+    private ExecutorService platformExecutor;
+    private ExecutorService virtualExecutor;
+    private OperationService operationService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        platformExecutor = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        operationService = StubbedOperationService.create(new BlockingEngine(blockingMillis));
+        user = new User(1L, "benchmark_user", "encodedPassword", UserStatusEnum.ACTIVE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        platformExecutor.shutdownNow();
+        virtualExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS)
+    public void platformThreads() throws InterruptedException {
+        serve(platformExecutor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS)
+    public void virtualThreads() throws InterruptedException {
+        serve(virtualExecutor);
+    }
+
+    // Every client sends different values, so no request is coalesced with another
+    private void serve(ExecutorService executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            OperationRequest request = new OperationRequest(OperationTypeEnum.ADDITION.name(), (double) i, 1.0);
+            executor.execute(() -> {
+                try {
+                    operationService.executeOperation(request, user);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private record BlockingEngine(long blockingMillis) implements CalculationEngine {
+
+        @Override
+        public String getName() {
+            return "blocking";
+        }
+
+        @Override
+        public String calculate(OperationTypeEnum operationType, Double value1, Double value2) {
+            try {
+                Thread.sleep(blockingMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "\"Result: " + (value1 + value2) + "\"";
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the Lambda request payload with concatenation against the previous String.format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LambdaPayloadBenchmark {
+
+    private final OperationTypeEnum operationType = OperationTypeEnum.DIVISION;
+    private final Double value1 = 1234.5;
+    private final Double value2 = 0.25;
+
+    @Benchmark
+    public String buildPayload() {
+        return LambdaCalculationEngine.buildPayload(operationType, value1, value2);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format("{ \"operationType\": \"%s\", \"value1\": %s, \"value2\": %s }", operationType.name(), value1, value2);
+    }
+}
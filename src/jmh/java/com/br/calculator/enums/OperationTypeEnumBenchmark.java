@@ -0,0 +1,32 @@
+package com.br.calculator.enums;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the operation type sent by clients, including the exception path for unknown types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OperationTypeEnumBenchmark {
+
+    @Param({"ADDITION", "square_root", "UNKNOWN"})
+    private String value;
+
+    @Benchmark
+    public Object fromString() {
+        try {
+            return OperationTypeEnum.fromString(value);
+        } catch (IllegalArgumentException ex) {
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.br.calculator.security.jwt;
+
+import com.br.calculator.entities.User;
+import com.br.calculator.enums.UserStatusEnum;
+import com.br.calculator.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing on login and the per-request parse, comparing the old triple parse of
+ * {@code validateToken(String, UserDetails)} with parsing once and validating the claims.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtUtilBenchmark {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private AuthenticatedUser principal;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        Field secretKey = JwtUtil.class.getDeclaredField("secretKey");
+        secretKey.setAccessible(true);
+        secretKey.set(jwtUtil, Base64.getEncoder().encodeToString("a-benchmark-secret-that-is-long-enough-for-hs256".getBytes()));
+        principal = new AuthenticatedUser(new User(42L, "benchmark_user", "password", UserStatusEnum.ACTIVE));
+        token = jwtUtil.generateToken(principal);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(principal);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, principal);
+    }
+
+    @Benchmark
+    public Boolean parseAndValidateClaims() {
+        Claims claims = jwtUtil.parseToken(token);
+        return jwtUtil.validateToken(claims, principal);
+    }
+}
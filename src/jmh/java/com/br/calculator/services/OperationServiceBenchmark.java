@@ -0,0 +1,79 @@
+package com.br.calculator.services;
+
+import com.br.calculator.dto.RecordResponse;
+import com.br.calculator.engine.LocalCalculationEngine;
+import com.br.calculator.entities.Operation;
+import com.br.calculator.entities.Record;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.enums.RecordStatusEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance computation over a user's history and the two ways of building a history page:
+ * mapping loaded entities (the removed {@code getRecordResponse}) and the JPQL projection
+ * constructor used by {@code RecordRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OperationServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int historySize;
+
+    private final OperationService operationService = StubbedOperationService.create(new LocalCalculationEngine());
+    private List<Record> records;
+
+    @Setup
+    public void setUp() {
+        OperationTypeEnum[] types = OperationTypeEnum.values();
+        LocalDateTime date = LocalDateTime.now();
+        records = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            OperationTypeEnum type = types[i % types.length];
+            Operation operation = new Operation((long) type.ordinal() + 1, type, type.ordinal() + 1);
+            records.add(new Record((long) i, operation, null, 200 - i, type.ordinal() + 1, null,
+                    "\"Result: " + i + "\"", date, true, RecordStatusEnum.COMPLETED));
+        }
+    }
+
+    @Benchmark
+    public int getNewAmount() {
+        return operationService.getNewAmount(records);
+    }
+
+    @Benchmark
+    public void entityMapping(Blackhole blackhole) {
+        for (Record record : records) {
+            var response = new RecordResponse();
+            response.setId(record.getId());
+            response.setOperationId(record.getId());
+            response.setDate(record.getDate());
+            response.setOperationCost(record.getChargedCost());
+            response.setOperationType(record.getOperation().getType().name());
+            response.setUserBalance(record.getAmount());
+            blackhole.consume(response);
+        }
+    }
+
+    @Benchmark
+    public void projectionConstructor(Blackhole blackhole) {
+        for (Record record : records) {
+            blackhole.consume(new RecordResponse(record.getId(), record.getId(), record.getOperation().getType(),
+                    record.getCost(), record.getAmount(), record.getDate()));
+        }
+    }
+}
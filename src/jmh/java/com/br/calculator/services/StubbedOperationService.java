@@ -0,0 +1,78 @@
+package com.br.calculator.services;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.br.calculator.config.CalculationEngineProperties;
+import com.br.calculator.engine.CalculationCoalescer;
+import com.br.calculator.engine.CalculationEngine;
+import com.br.calculator.engine.CalculationEngineRouter;
+import com.br.calculator.entities.Operation;
+import com.br.calculator.entities.User;
+import com.br.calculator.entities.UserBalance;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.events.UserEventBus;
+import com.br.calculator.metrics.CalculationMetrics;
+import com.br.calculator.repositories.RecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Builds an {@link OperationService} for benchmarks the way {@code OperationServiceTest} does:
+ * the real router, metrics, expression service and coalescer around stubs of the ledger,
+ * catalog, repository, caches and event bus. The stubs don't record invocations, so they
+ * stay cheap under millions of calls.
+ */
+public final class StubbedOperationService {
+
+    private static final int BALANCE = LedgerService.INITIAL_BALANCE;
+
+    private StubbedOperationService() {
+    }
+
+    // Every operation type is routed to the given engine; memoization is off so each call reaches it.
+    // The per-request info logging is turned down, or console output would be what gets measured
+    public static OperationService create(CalculationEngine engine) {
+        ((Logger) LoggerFactory.getLogger(OperationService.class)).setLevel(Level.WARN);
+        CalculationEngineProperties properties = new CalculationEngineProperties();
+        properties.setDefaultEngine(engine.getName());
+        properties.getMemo().setEnabled(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new OperationService(operationCatalog(), stub(RecordRepository.class), ledgerService(),
+                new CalculationEngineRouter(List.of(engine), properties), stub(UserCacheService.class), Runnable::run,
+                new CalculationMetrics(meterRegistry), new ExpressionService(100), new CalculationCoalescer(meterRegistry),
+                stub(UserEventBus.class));
+    }
+
+    private static OperationCatalog operationCatalog() {
+        OperationCatalog operationCatalog = stub(OperationCatalog.class);
+        when(operationCatalog.getOperation(any(OperationTypeEnum.class))).thenAnswer(invocation -> {
+            OperationTypeEnum operationType = invocation.getArgument(0);
+            return new Operation((long) operationType.ordinal() + 1, operationType, operationType.ordinal() + 1);
+        });
+        when(operationCatalog.getCost(any(OperationTypeEnum.class))).thenAnswer(invocation ->
+                ((OperationTypeEnum) invocation.getArgument(0)).ordinal() + 1);
+        return operationCatalog;
+    }
+
+    private static LedgerService ledgerService() {
+        LedgerService ledgerService = stub(LedgerService.class);
+        when(ledgerService.getBalance(any(User.class))).thenReturn(new UserBalance(null, BALANCE, 0L, null, null, 0, 0L));
+        when(ledgerService.reserveCredits(any(User.class), anyInt())).thenAnswer(invocation -> {
+            Integer cost = invocation.getArgument(1);
+            return new Reservation(1L, invocation.getArgument(0), cost, new UserBalance(null, BALANCE - cost, 0L, null, null, cost, 1L));
+        });
+        return ledgerService;
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,42 @@
+package com.br.calculator.services;
+
+import com.br.calculator.exceptions.UserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Username validation on registration, with the precompiled pattern against
+ * {@link String#matches}, which compiles the regex on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserServiceBenchmark {
+
+    @Param({"benchmark_user", "bad-user!"})
+    private String username;
+
+    private final UserService userService = new UserService(null, null, null, null);
+
+    @Benchmark
+    public Object validateUsername() {
+        try {
+            userService.validateUsername(username);
+            return null;
+        } catch (UserException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public boolean stringMatches() {
+        return username.matches("^[a-zA-Z0-9_]+$");
+    }
+}
@@ -0,0 +1,34 @@
+package com.br.calculator.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Current generation of each user's paged cache entries, part of their {@link UserCacheKey}.
+ * Advancing it makes every cached page of the user unreachable at once, without scanning the
+ * cache; the orphaned entries age out through the cache's own size and expiry limits.
+ */
+@Component
+public class UserCacheGenerations {
+
+    // Generations of idle users are dropped; a fresh one is issued on their next read
+    private static final Duration IDLE_EXPIRY = Duration.ofHours(1);
+
+    // Every generation comes from this sequence, so a user never gets back one that an old page was stored under
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<Long, Long> generations = Caffeine.newBuilder()
+            .expireAfterAccess(IDLE_EXPIRY)
+            .build();
+
+    public long current(long userId) {
+        return generations.get(userId, key -> sequence.incrementAndGet());
+    }
+
+    public void advance(long userId) {
+        generations.put(userId, sequence.incrementAndGet());
+    }
+}
@@ -0,0 +1,91 @@
+package com.br.calculator.cache;
+
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Immutable key for per-user cache entries. Only holds the user id, the page coordinates and, for
+ * pages, the user's {@link UserCacheGenerations generation}, so lookups never hash the {@code User}
+ * entity and keys stay valid when the entity changes.
+ */
+public final class UserCacheKey {
+
+    private static final int NO_PAGE = -1;
+    private static final String NO_SORT = "";
+
+    private final long userId;
+    private final long generation;
+    private final int page;
+    private final int size;
+    private final String sort;
+    private final int hash;
+
+    private UserCacheKey(long userId, long generation, int page, int size, String sort) {
+        this.userId = userId;
+        this.generation = generation;
+        this.page = page;
+        this.size = size;
+        this.sort = sort;
+        this.hash = computeHash();
+    }
+
+    public static UserCacheKey of(long userId) {
+        return new UserCacheKey(userId, 0, NO_PAGE, NO_PAGE, NO_SORT);
+    }
+
+    public static UserCacheKey of(long userId, long generation, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new UserCacheKey(userId, generation, NO_PAGE, NO_PAGE, pageable.getSort().toString());
+        }
+        return new UserCacheKey(userId, generation, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserCacheKey other)) {
+            return false;
+        }
+        return userId == other.userId && generation == other.generation && page == other.page && size == other.size && sort.equals(other.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "UserCacheKey[userId=" + userId + ", generation=" + generation + ", page=" + page + ", size=" + size + ", sort=" + sort + "]";
+    }
+
+    private int computeHash() {
+        int result = Long.hashCode(userId);
+        result = 31 * result + Long.hashCode(generation);
+        result = 31 * result + page;
+        result = 31 * result + size;
+        result = 31 * result + sort.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package com.br.calculator.cache;
+
+import com.br.calculator.entities.User;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Builds a {@link UserCacheKey} from the {@link User} and optional {@link Pageable} arguments
+ * of a cached method. Page keys carry the user's current generation.
+ */
+@Component(UserCacheKeyGenerator.NAME)
+public class UserCacheKeyGenerator implements KeyGenerator {
+
+    public static final String NAME = "userCacheKeyGenerator";
+
+    private final UserCacheGenerations userCacheGenerations;
+
+    public UserCacheKeyGenerator(UserCacheGenerations userCacheGenerations) {
+        this.userCacheGenerations = userCacheGenerations;
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        Long userId = null;
+        Pageable pageable = null;
+        for (Object param : params) {
+            if (param instanceof User user) {
+                userId = user.getId();
+            } else if (param instanceof Pageable page) {
+                pageable = page;
+            }
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("Cannot build a user cache key for " + method.getName() + " without a persisted user");
+        }
+        return pageable != null
+                ? UserCacheKey.of(userId, userCacheGenerations.current(userId), pageable)
+                : UserCacheKey.of(userId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.br.calculator.config;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs each task on its own virtual thread while capping the number of tasks in flight, so it
+ * rejects work the same way the bounded platform pool does.
+ */
+public class BoundedVirtualThreadExecutor implements Executor, DisposableBean {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int maxTasks) {
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        this.permits = new Semaphore(maxTasks);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many tasks in flight");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        delegate.shutdown();
+    }
+}
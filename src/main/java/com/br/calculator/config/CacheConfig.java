@@ -0,0 +1,57 @@
+package com.br.calculator.config;
+
+import com.br.calculator.cache.InstrumentedCacheManager;
+import com.br.calculator.services.UserCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+
+import java.util.Collections;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(CalculatorCacheProperties.class)
+public class CacheConfig {
+
+    private static final List<String> CACHE_NAMES = List.of(UserCacheService.USER_OPERATIONS, UserCacheService.USER_STATS);
+
+    @Bean
+    public InstrumentedCacheManager cacheManager(CalculatorCacheProperties properties) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        // Only the configured caches exist; unknown names are not created on the fly
+        caffeineCacheManager.setCacheNames(Collections.emptyList());
+        for (String cacheName : CACHE_NAMES) {
+            CalculatorCacheProperties.CacheSpec spec = properties.getCaches()
+                    .getOrDefault(cacheName, new CalculatorCacheProperties.CacheSpec());
+            caffeineCacheManager.registerCustomCache(cacheName, buildCache(spec));
+        }
+        return new InstrumentedCacheManager(caffeineCacheManager);
+    }
+
+    private static Cache<Object, Object> buildCache(CalculatorCacheProperties.CacheSpec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.getMaximumWeight() != null) {
+            builder = builder.maximumWeight(spec.getMaximumWeight()).weigher(CacheConfig::weigh);
+        } else if (spec.getMaximumSize() != null) {
+            builder = builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder = builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder = builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder.build();
+    }
+
+    private static int weigh(Object key, Object value) {
+        if (value instanceof Page<?> page) {
+            return Math.max(1, page.getNumberOfElements());
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.br.calculator.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.lambda.LambdaAsyncClient;
+import software.amazon.awssdk.services.lambda.LambdaAsyncClientBuilder;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties({CalculationEngineProperties.class, LambdaClientProperties.class, RandomStringProperties.class})
+public class CalculationEngineConfig {
+
+    public static final String LAMBDA = "lambda";
+
+    @Bean(destroyMethod = "close")
+    public LambdaAsyncClient lambdaAsyncClient(LambdaClientProperties properties) {
+        LambdaAsyncClientBuilder builder = LambdaAsyncClient.builder()
+                .region(Region.of(properties.getRegion()))
+                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(properties.getMaxConnections())
+                        .connectionTimeout(properties.getConnectionTimeout())
+                        .connectionAcquisitionTimeout(properties.getConnectionAcquisitionTimeout()))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .apiCallAttemptTimeout(properties.getAttemptTimeout())
+                        .apiCallTimeout(properties.getCallTimeout())
+                        .retryPolicy(RetryPolicy.builder()
+                                .numRetries(properties.getMaxRetries())
+                                .backoffStrategy(FullJitterBackoffStrategy.builder()
+                                        .baseDelay(properties.getBaseDelay())
+                                        .maxBackoffTime(properties.getMaxBackoff())
+                                        .build())
+                                .build())
+                        .build());
+        if (properties.getEndpoint() != null) {
+            builder.endpointOverride(properties.getEndpoint());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public CircuitBreaker lambdaCircuitBreaker(LambdaClientProperties properties) {
+        return CircuitBreaker.of(LAMBDA, CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getSlidingWindowSize())
+                .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                .build());
+    }
+
+    @Bean
+    public Bulkhead lambdaBulkhead(LambdaClientProperties properties) {
+        return Bulkhead.of(LAMBDA, BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+}
@@ -0,0 +1,35 @@
+package com.br.calculator.config;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "calculator.engine")
+public class CalculationEngineProperties {
+
+    // Engine used for every operation type without an explicit route
+    private String defaultEngine = "lambda";
+
+    // Engine name per operation type, e.g. calculator.engine.routes.ADDITION=local
+    private Map<OperationTypeEnum, String> routes = new EnumMap<>(OperationTypeEnum.class);
+
+    // Memo of results of deterministic operations, e.g. calculator.engine.memo.maximum-size=100000
+    private Memo memo = new Memo();
+
+    @Getter
+    @Setter
+    public static class Memo {
+
+        private boolean enabled = true;
+
+        private long maximumSize = 100_000;
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.br.calculator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "calculator.cache")
+public class CalculatorCacheProperties {
+
+    // Settings per cache name, e.g. calculator.cache.caches.userStats.maximum-size=10000
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class CacheSpec {
+        // Maximum number of entries (ignored when maximumWeight is set)
+        private Long maximumSize = 10_000L;
+        // Maximum total weight, where a cached page weighs its number of elements
+        private Long maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+    }
+}
@@ -0,0 +1,77 @@
+package com.br.calculator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig {
+
+    public static final String CALCULATION_EXECUTOR = "calculationExecutor";
+    public static final String PASSWORD_EXECUTOR = "passwordExecutor";
+    public static final String EVENT_EXECUTOR = "eventExecutor";
+
+    // Bounded executor for calculation engine calls that run off the request thread
+    @Bean(CALCULATION_EXECUTOR)
+    public Executor calculationExecutor(@Value("${calculator.threads.virtual:false}") boolean virtualThreads,
+                                        @Value("${calculator.executor.core-pool-size:8}") int corePoolSize,
+                                        @Value("${calculator.executor.max-pool-size:32}") int maxPoolSize,
+                                        @Value("${calculator.executor.queue-capacity:500}") int queueCapacity) {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor("calculation-", maxPoolSize + queueCapacity);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("calculation-");
+        return executor;
+    }
+
+    // Password hashing is CPU bound, so it gets a few platform threads and a short queue instead of the request pool
+    @Bean(PASSWORD_EXECUTOR)
+    public ThreadPoolTaskExecutor passwordExecutor(@Value("${calculator.password.threads:2}") int threads,
+                                                   @Value("${calculator.password.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-");
+        return executor;
+    }
+
+    // Drains event stream buffers into their connections; a slow client only holds the thread draining its own stream
+    @Bean(EVENT_EXECUTOR)
+    public Executor eventExecutor(@Value("${calculator.threads.virtual:false}") boolean virtualThreads,
+                                  @Value("${calculator.events.threads:4}") int threads,
+                                  @Value("${calculator.events.queue-capacity:1000}") int queueCapacity) {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor("event-", threads + queueCapacity);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("event-");
+        return executor;
+    }
+
+    // Runs MVC async work (streamed exports) with the spring.task.execution settings. The executors above make Boot
+    // back off its own applicationTaskExecutor, which would leave MVC on a thread per request SimpleAsyncTaskExecutor
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(@Value("${calculator.threads.virtual:false}") boolean virtualThreads,
+                                                     TaskExecutorBuilder taskExecutorBuilder) {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-", 0).factory()));
+        }
+        return taskExecutorBuilder.build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.br.calculator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "calculator.lambda")
+public class LambdaClientProperties {
+
+    private String region = "us-east-2";
+
+    // Overrides the AWS endpoint, e.g. a local stub of the function for tests
+    private URI endpoint;
+
+    // Pooled HTTP connections shared by every invocation
+    private int maxConnections = 50;
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    private Duration connectionAcquisitionTimeout = Duration.ofSeconds(1);
+
+    // Upper bound of one attempt and of the whole call including retries
+    private Duration attemptTimeout = Duration.ofSeconds(3);
+    private Duration callTimeout = Duration.ofSeconds(8);
+
+    // Retries with full jitter backoff between baseDelay and maxBackoff
+    private int maxRetries = 2;
+    private Duration baseDelay = Duration.ofMillis(100);
+    private Duration maxBackoff = Duration.ofSeconds(1);
+
+    // Circuit breaker opens when this percentage of the last slidingWindowSize calls failed
+    private float failureRateThreshold = 50;
+    private int slidingWindowSize = 20;
+    private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+    // Bulkhead: concurrent invocations allowed before new calls are rejected
+    private int maxConcurrentCalls = 32;
+
+}
@@ -0,0 +1,27 @@
+package com.br.calculator.config;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "calculator.operation")
+public class OperationCatalogProperties {
+
+    // Credits charged per operation type, e.g. calculator.operation.costs.ADDITION=1
+    private Map<OperationTypeEnum, Integer> costs = new EnumMap<>(Map.of(
+            OperationTypeEnum.ADDITION, 1,
+            OperationTypeEnum.SUBTRACTION, 2,
+            OperationTypeEnum.MULTIPLICATION, 3,
+            OperationTypeEnum.DIVISION, 4,
+            OperationTypeEnum.SQUARE_ROOT, 5,
+            OperationTypeEnum.RANDOM_STRING, 6,
+            OperationTypeEnum.EXPRESSION, 1
+    ));
+
+}
@@ -0,0 +1,19 @@
+package com.br.calculator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "calculator.random-string")
+public class RandomStringProperties {
+
+    private int length = 10;
+
+    private String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    // Strings generated ahead of demand by the background filler
+    private int bufferSize = 1024;
+
+}
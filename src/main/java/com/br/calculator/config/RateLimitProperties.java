@@ -0,0 +1,31 @@
+package com.br.calculator.config;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "calculator.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Requests per user allowed in each period, with up to burst of them back to back
+    private Duration period = Duration.ofMinutes(1);
+    private int defaultLimit = 120;
+    private int burst = 20;
+
+    // Limit per operation type, e.g. calculator.rate-limit.limits.RANDOM_STRING=30
+    private Map<OperationTypeEnum, Integer> limits = new EnumMap<>(OperationTypeEnum.class);
+
+    // Largest calculation body the limiter buffers to read its operation types; larger ones get 413
+    private DataSize maxBodySize = DataSize.ofKilobytes(256);
+
+}
@@ -1,5 +1,6 @@
 package com.br.calculator.config;
 
+import com.br.calculator.security.RateLimitFilter;
 import com.br.calculator.security.jwt.JwtRequestFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,11 +19,13 @@ public class SecurityConfig {
 
 
     private final JwtRequestFilter jwtRequestFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final CorsConfigurationSource corsConfigurationSource;
 
-    public SecurityConfig(JwtRequestFilter jwtRequestFilter, CorsConfigurationSource corsConfigurationSource) {
+    public SecurityConfig(JwtRequestFilter jwtRequestFilter, RateLimitFilter rateLimitFilter, CorsConfigurationSource corsConfigurationSource) {
 
         this.jwtRequestFilter = jwtRequestFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.corsConfigurationSource = corsConfigurationSource;
     }
 
@@ -36,13 +39,16 @@ public class SecurityConfig {
                                 // Allow unauthenticated access to login and registration endpoints
                                 .requestMatchers("/api/auth/login").permitAll()
                                 .requestMatchers("/api/auth/register").permitAll()
+                                // Health checks; the metrics and Prometheus endpoints need a token like any other request
+                                .requestMatchers("/actuator/health").permitAll()
                                 // Require authentication for all other requests
                                 .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS) // Use stateless sessions
                 )
-                .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class); // Add JWT filter before authentication
+                .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class) // Add JWT filter before authentication
+                .addFilterAfter(rateLimitFilter, JwtRequestFilter.class); // Limit calculations once the user is known
 
         return http.build();
     }
@@ -3,22 +3,32 @@ package com.br.calculator.controllers;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 import com.br.calculator.dto.AuthenticationRequest;
 import com.br.calculator.dto.AuthenticationResponse;
 import com.br.calculator.entities.User;
+import com.br.calculator.exceptions.TooManyRequestsException;
 import com.br.calculator.exceptions.UserException;
+import com.br.calculator.security.AuthenticatedUser;
+import com.br.calculator.security.LoginRateLimiter;
+import com.br.calculator.security.jwt.JwtPrincipalCache;
+import com.br.calculator.security.jwt.JwtRequestFilter;
 import com.br.calculator.security.jwt.JwtUtil;
+import com.br.calculator.security.jwt.TokenRevocationList;
+import com.br.calculator.services.UserCacheService;
 import com.br.calculator.services.UserService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -26,7 +36,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -38,7 +47,10 @@ public class AuthController {
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
-    private final CacheManager cacheManager;
+    private final UserCacheService userCacheService;
+    private final JwtPrincipalCache jwtPrincipalCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
@@ -56,27 +68,38 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> createAuthenticationToken(@RequestBody AuthenticationRequest authenticationRequest) {
-        cacheManager.getCacheNames().forEach(cacheName ->
-                cacheManager.getCache(cacheName).clear()
-        );
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(authenticationRequest.getUsername(), authenticationRequest.getPassword())
-        );
+    public ResponseEntity<?> createAuthenticationToken(@RequestBody AuthenticationRequest authenticationRequest,
+                                                       HttpServletRequest request) {
+        try {
+            loginRateLimiter.acquire(authenticationRequest.getUsername(), request.getRemoteAddr());
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(authenticationRequest.getUsername(), authenticationRequest.getPassword())
+            );
+            loginRateLimiter.reset(authenticationRequest.getUsername());
 
-        final UserDetails userDetails = userService.loadUserByUsername(authenticationRequest.getUsername());
-        final String jwt = jwtUtil.generateToken(userDetails);
-        cacheManager.getCacheNames().forEach(cacheName -> Objects.requireNonNull(cacheManager.getCache(cacheName)).clear());
-        return ResponseEntity.ok(new AuthenticationResponse(jwt));
+            final AuthenticatedUser userDetails = (AuthenticatedUser) authentication.getPrincipal();
+            final String jwt = jwtUtil.generateToken(userDetails);
+            userCacheService.evictUser(userDetails.getUser().getId());
+            return ResponseEntity.ok(new AuthenticationResponse(jwt));
+        } catch (TooManyRequestsException ex) {
+            logger.warn("Login rejected: {}", ex.getMessage());
+            return ResponseEntity.status(TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                    .body(ex.getMessage());
+        }
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        var user = (org.springframework.security.core.userdetails.User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    public ResponseEntity<?> logout(HttpServletRequest request) {
+        var user = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         logger.info("Users logout action. Username: " + user.getUsername());
-        cacheManager.getCacheNames().forEach(cacheName ->
-                cacheManager.getCache(cacheName).clear()
-        );
+        userCacheService.evictUser(user.getUser().getId());
+        String jwt = JwtRequestFilter.getBearerToken(request);
+        if (jwt != null) {
+            jwtPrincipalCache.evict(jwt);
+            Claims claims = jwtUtil.parseToken(jwt);
+            tokenRevocationList.revoke(claims.getId(), claims.getExpiration());
+        }
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok(null);
     }
@@ -1,14 +1,22 @@
 package com.br.calculator.controllers;
 
+import com.br.calculator.dto.BatchOperationResponse;
+import com.br.calculator.dto.OperationJobResponse;
 import com.br.calculator.dto.OperationRequest;
 import com.br.calculator.dto.OperationResponse;
 import com.br.calculator.dto.RecordResponse;
 import com.br.calculator.dto.UserStatsResponse;
 import com.br.calculator.entities.Record;
 import com.br.calculator.entities.User;
+import com.br.calculator.events.UserEventBus;
+import com.br.calculator.enums.ExportFormatEnum;
+import com.br.calculator.exceptions.EngineUnavailableException;
 import com.br.calculator.exceptions.OperationException;
+import com.br.calculator.exceptions.TooManyRequestsException;
 import com.br.calculator.exceptions.UserException;
+import com.br.calculator.security.AuthenticatedUser;
 import com.br.calculator.services.OperationService;
+import com.br.calculator.services.RecordExportService;
 import com.br.calculator.services.RecordService;
 import com.br.calculator.services.UserService;
 import org.slf4j.Logger;
@@ -17,20 +25,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
@@ -48,6 +68,12 @@ public class OperationController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RecordExportService recordExportService;
+
+    @Autowired
+    private UserEventBus userEventBus;
+
     // Fetch authenticated user's operations
     @GetMapping
     public ResponseEntity<Page<RecordResponse>> getOperations(
@@ -61,6 +87,72 @@ public class OperationController {
         return ResponseEntity.ok(userRecords);
     }
 
+    // Fetch authenticated user's operations with keyset pagination, without a count query
+    @GetMapping("/cursor")
+    public ResponseEntity<?> getOperationsSlice(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "direction", defaultValue = "DESC") Sort.Direction direction) {
+        try {
+            User user = getAuthenticatedUser();
+            logger.info("Fetching user operations slice for user: {}", user.getUsername());
+            return ResponseEntity.ok(operationService.getUserRecordsSlice(user, cursor, size, direction));
+        } catch (OperationException ex) {
+            logger.error("Invalid operations cursor", ex);
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (UserException ex) {
+            logger.error("User validation error", ex);
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // Stream all of the authenticated user's operations, gzipped when the client accepts it
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOperations(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            User user = getAuthenticatedUser();
+            ExportFormatEnum exportFormat = ExportFormatEnum.fromString(format);
+            boolean gzip = acceptsGzip(acceptEncoding);
+            logger.info("Exporting user operations for user: {}", user.getUsername());
+            StreamingResponseBody body = recordExportService.export(user, exportFormat, from, to, gzip);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"operations." + exportFormat.getExtension() + "\"")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(body);
+        } catch (OperationException | UserException | IllegalArgumentException ex) {
+            logger.error("Invalid export request", ex);
+            // Streaming endpoints can only return a streaming body, errors included
+            byte[] message = ex.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(output -> output.write(message));
+        }
+    }
+
+    // Server-sent events with the authenticated user's operations, balance changes and deleted records
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents() {
+        try {
+            User user = getAuthenticatedUser();
+            logger.info("Opening event stream for user: {}", user.getUsername());
+            return ResponseEntity.ok(userEventBus.subscribe(user.getId()));
+        } catch (TooManyRequestsException ex) {
+            logger.warn("Event stream rejected: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                    .build();
+        } catch (UserException ex) {
+            logger.error("User validation error", ex);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Fetch authenticated user's statistics
     @GetMapping("/user-stats")
     @ResponseStatus(HttpStatus.OK)
@@ -88,6 +180,9 @@ public class OperationController {
             OperationResponse operationResponse = operationService.executeOperation(operation, user);
             logger.info("Operation success");
             return ResponseEntity.ok(operationResponse);
+        } catch (EngineUnavailableException ex) {
+            logger.warn("Calculation engine unavailable: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
         } catch (OperationException ex) {
             logger.error("Error during operation execution", ex);
             return ResponseEntity.badRequest().body(ex.getMessage());
@@ -97,6 +192,62 @@ public class OperationController {
         }
     }
 
+    // Queue operation for authenticated user and return the job to poll
+    @PostMapping(value = "/calculate", params = "async=true")
+    public ResponseEntity<?> calculateAsync(@RequestBody OperationRequest operation) {
+        try {
+            User user = getAuthenticatedUser();
+            logger.info("Submitting operation for user: {}", user.getUsername());
+            OperationJobResponse operationJobResponse = operationService.submitOperation(operation, user);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(operationJobResponse);
+        } catch (TooManyRequestsException ex) {
+            logger.warn("Operation rejected: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                    .body(ex.getMessage());
+        } catch (OperationException ex) {
+            logger.error("Error during operation submission", ex);
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (UserException ex) {
+            logger.error("User validation error", ex);
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable Long id) {
+        try {
+            User user = getAuthenticatedUser();
+            Optional<Record> record = recordService.findJob(id, user);
+            if (record.isPresent()) {
+                return ResponseEntity.ok(operationService.getJob(record.get()));
+            }
+            return ResponseEntity.notFound().build();
+        } catch (UserException ex) {
+            logger.error("User validation error", ex);
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // Perform several operations for authenticated user in one request
+    @PostMapping("/calculate/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<?> calculateBatch(@RequestBody List<OperationRequest> operations) {
+        try {
+            User user = getAuthenticatedUser();
+            logger.info("Executing batch of {} operations for user: {}", operations.size(), user.getUsername());
+            BatchOperationResponse batchOperationResponse = operationService.executeBatch(operations, user);
+            logger.info("Batch operation success");
+            return ResponseEntity.ok(batchOperationResponse);
+        } catch (OperationException ex) {
+            logger.error("Error during batch operation execution", ex);
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (UserException ex) {
+            logger.error("User validation error", ex);
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
     @DeleteMapping
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<?> deleteRecord(@RequestParam Long recordId) {
@@ -119,6 +270,39 @@ public class OperationController {
         }
     }
 
+    // Accept-Encoding codings with their q-values: gzip is used unless refused with q=0 or only matched by a refused *
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
     private boolean isUserAuthenticated(Authentication authentication) {
         return authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof UserDetails;
     }
@@ -126,6 +310,9 @@ public class OperationController {
     public User getAuthenticatedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (isUserAuthenticated(authentication)) {
+            if (authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+                return authenticatedUser.getUser();
+            }
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             return userService.findUserByUserName(userDetails.getUsername());
         }
@@ -0,0 +1,15 @@
+package com.br.calculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class BalanceResponse {
+    private Integer currentBalance;
+    private Long totalOperations;
+}
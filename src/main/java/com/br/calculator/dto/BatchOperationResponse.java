@@ -0,0 +1,17 @@
+package com.br.calculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchOperationResponse {
+
+    private List<BatchOperationItemResponse> results;
+    private Integer amount;
+
+}
@@ -0,0 +1,17 @@
+package com.br.calculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OperationJobResponse {
+
+    private Long jobId;
+    private String status;
+    private String operationResult;
+    private Integer amount;
+
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -12,11 +14,26 @@ public class OperationRequest {
     private String operationType;
     private Double value1;
     private Double value2;
+    // EXPRESSION only: arithmetic expression and the values of its variables
+    private String expression;
+    private Map<String, Double> variables;
 
     public OperationRequest(String operationType, Double value1) {
         this.operationType = operationType;
         this.value1 = value1;
     }
 
+    public OperationRequest(String operationType, Double value1, Double value2) {
+        this.operationType = operationType;
+        this.value1 = value1;
+        this.value2 = value2;
+    }
+
+    public OperationRequest(String operationType, String expression, Map<String, Double> variables) {
+        this.operationType = operationType;
+        this.expression = expression;
+        this.variables = variables;
+    }
+
 
 }
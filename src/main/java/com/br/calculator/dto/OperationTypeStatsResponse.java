@@ -0,0 +1,19 @@
+package com.br.calculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class OperationTypeStatsResponse {
+    private Long operationCount;
+    private Long spent;
+    private LocalDateTime firstOperationAt;
+    private LocalDateTime lastOperationAt;
+}
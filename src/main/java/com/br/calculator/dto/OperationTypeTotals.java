@@ -0,0 +1,42 @@
+package com.br.calculator.dto;
+
+import com.br.calculator.entities.UserOperationStats;
+import com.br.calculator.enums.OperationTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Statistics of a user for one operation type as computed from the record table, used to build
+ * and verify the materialized {@link UserOperationStats}.
+ */
+@AllArgsConstructor
+@Getter
+public class OperationTypeTotals {
+    private Long userId;
+    private OperationTypeEnum operationType;
+    private Long operationCount;
+    private Long spent;
+    private LocalDateTime firstOperationAt;
+    private LocalDateTime lastOperationAt;
+
+    // Totals of a type the user has no records of
+    public static OperationTypeTotals none(Long userId, OperationTypeEnum operationType) {
+        return new OperationTypeTotals(userId, operationType, 0L, 0L, null, null);
+    }
+
+    public boolean matches(UserOperationStats stats) {
+        return stats.getOperationCount() == operationCount && stats.getSpent() == spent
+                && Objects.equals(stats.getFirstOperationAt(), firstOperationAt)
+                && Objects.equals(stats.getLastOperationAt(), lastOperationAt);
+    }
+
+    public void applyTo(UserOperationStats stats) {
+        stats.setOperationCount(operationCount);
+        stats.setSpent(spent);
+        stats.setFirstOperationAt(firstOperationAt);
+        stats.setLastOperationAt(lastOperationAt);
+    }
+}
@@ -0,0 +1,14 @@
+package com.br.calculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RecordDeletedResponse {
+    private Long recordId;
+}
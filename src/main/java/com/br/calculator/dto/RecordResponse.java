@@ -1,5 +1,6 @@
 package com.br.calculator.dto;
 
+import com.br.calculator.enums.OperationTypeEnum;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,4 +19,10 @@ public class RecordResponse {
     private Integer operationCost;
     private Integer userBalance;
     private LocalDateTime date;
+
+    // Used by the JPQL constructor expressions in RecordRepository
+    public RecordResponse(Long id, Long operationId, OperationTypeEnum operationType, Integer operationCost,
+                          Integer userBalance, LocalDateTime date) {
+        this(id, operationId, operationType.name(), operationCost, userBalance, date);
+    }
 }
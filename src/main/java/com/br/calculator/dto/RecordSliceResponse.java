@@ -0,0 +1,19 @@
+package com.br.calculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RecordSliceResponse {
+    private List<RecordResponse> content;
+    // Opaque token for the next slice, null on the last one
+    private String nextCursor;
+    private Boolean hasNext;
+}
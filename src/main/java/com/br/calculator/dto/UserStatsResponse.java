@@ -1,10 +1,14 @@
 package com.br.calculator.dto;
 
+import com.br.calculator.enums.OperationTypeEnum;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -12,5 +16,9 @@ import lombok.Setter;
 public class UserStatsResponse {
     public Integer currentBalance;
     public Long totalOperations;
+    public Long totalSpent;
+    public LocalDateTime firstOperationAt;
+    public LocalDateTime lastOperationAt;
+    public Map<OperationTypeEnum, OperationTypeStatsResponse> operations;
 
 }
@@ -0,0 +1,78 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses identical deterministic calculations of the same user that are in flight at the same
+ * time into a single engine call: the first request calculates, the others wait for its result.
+ * Only requests that overlap are joined; finished results are left to the engine memo.
+ */
+@Component
+public class CalculationCoalescer {
+
+    private static final long NULL_BITS = Double.doubleToRawLongBits(Double.NaN) ^ 1L;
+
+    private final Map<InFlightKey, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public CalculationCoalescer(MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("calculator.operation.coalesced")
+                .description("Calculations answered by an identical request already in flight")
+                .register(meterRegistry);
+    }
+
+    public String calculate(Long userId, OperationTypeEnum operationType, Double value1, Double value2, Supplier<String> calculation) {
+        if (!operationType.isDeterministic()) {
+            return calculation.get();
+        }
+        InFlightKey key = new InFlightKey(userId, operationType.ordinal(), bits(value1), bits(value2));
+        CompletableFuture<String> leader = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException ex) {
+                // Followers see the same exception the leader threw
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (ex.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw ex;
+            }
+        }
+        try {
+            String result = calculation.get();
+            leader.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            // Errors too, or the followers would wait on the leader forever
+            leader.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static long bits(Double value) {
+        return value != null ? Double.doubleToRawLongBits(value) : NULL_BITS;
+    }
+
+    record InFlightKey(Long userId, int operation, long value1, long value2) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.enums.OperationTypeEnum;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Backend that computes the result of an operation. Which engine serves each
+ * {@link OperationTypeEnum} is configured through {@code calculator.engine.*}.
+ */
+public interface CalculationEngine {
+
+    /**
+     * Name used to select this engine in {@code calculator.engine.routes}.
+     */
+    String getName();
+
+    String calculate(OperationTypeEnum operationType, Double value1, Double value2);
+
+    /**
+     * Non-blocking variant for engines with an asynchronous client; others compute inline.
+     */
+    default CompletableFuture<String> calculateAsync(OperationTypeEnum operationType, Double value1, Double value2) {
+        try {
+            return CompletableFuture.completedFuture(calculate(operationType, value1, value2));
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+}
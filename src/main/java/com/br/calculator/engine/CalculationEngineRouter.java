@@ -0,0 +1,102 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.config.CalculationEngineProperties;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the {@link CalculationEngine} configured for each operation type once at startup.
+ * Results of deterministic operations are memoized, so repeated inputs skip the engine call.
+ */
+@Component
+public class CalculationEngineRouter {
+
+    // Stands in for a missing value; JSON requests can't produce a NaN, let alone this payload
+    private static final long NULL_BITS = 0x7ff8_dead_0000_0000L;
+
+    private final Map<OperationTypeEnum, CalculationEngine> routes = new EnumMap<>(OperationTypeEnum.class);
+    private final Cache<ResultKey, String> results;
+
+    public CalculationEngineRouter(List<CalculationEngine> engines, CalculationEngineProperties properties) {
+        Map<String, CalculationEngine> enginesByName = engines.stream()
+                .collect(Collectors.toMap(CalculationEngine::getName, Function.identity()));
+        for (OperationTypeEnum operationType : OperationTypeEnum.values()) {
+            String engineName = properties.getRoutes().getOrDefault(operationType, properties.getDefaultEngine());
+            CalculationEngine engine = enginesByName.get(engineName);
+            if (engine == null) {
+                throw new IllegalStateException("Unknown calculation engine '" + engineName + "' configured for " + operationType);
+            }
+            routes.put(operationType, engine);
+        }
+        results = properties.getMemo().isEnabled()
+                ? Caffeine.newBuilder().maximumSize(properties.getMemo().getMaximumSize()).recordStats().build()
+                : null;
+    }
+
+    public CalculationEngine getEngine(OperationTypeEnum operationType) {
+        return routes.get(operationType);
+    }
+
+    // Looked up and stored separately instead of Cache.get(key, loader), which would hold a lock
+    // for the length of a remote call. Failures are never memoized.
+    public String calculate(OperationTypeEnum operationType, Double value1, Double value2) {
+        if (!isMemoized(operationType)) {
+            return getEngine(operationType).calculate(operationType, value1, value2);
+        }
+        ResultKey key = ResultKey.of(operationType, value1, value2);
+        String result = results.getIfPresent(key);
+        if (result == null) {
+            result = getEngine(operationType).calculate(operationType, value1, value2);
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    public CompletableFuture<String> calculateAsync(OperationTypeEnum operationType, Double value1, Double value2) {
+        if (!isMemoized(operationType)) {
+            return getEngine(operationType).calculateAsync(operationType, value1, value2);
+        }
+        ResultKey key = ResultKey.of(operationType, value1, value2);
+        String result = results.getIfPresent(key);
+        if (result != null) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return getEngine(operationType).calculateAsync(operationType, value1, value2)
+                .thenApply(calculated -> {
+                    results.put(key, calculated);
+                    return calculated;
+                });
+    }
+
+    public Optional<Cache<ResultKey, String>> getResultCache() {
+        return Optional.ofNullable(results);
+    }
+
+    private boolean isMemoized(OperationTypeEnum operationType) {
+        return results != null && operationType.isDeterministic();
+    }
+
+    /**
+     * Primitive composite key: the raw bits keep -0.0 and 0.0 apart, as their results differ.
+     */
+    public record ResultKey(int operation, long value1, long value2) {
+
+        static ResultKey of(OperationTypeEnum operationType, Double value1, Double value2) {
+            return new ResultKey(operationType.ordinal(), bits(value1), bits(value2));
+        }
+
+        private static long bits(Double value) {
+            return value != null ? Double.doubleToRawLongBits(value) : NULL_BITS;
+        }
+    }
+}
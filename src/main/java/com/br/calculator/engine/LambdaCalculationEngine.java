@@ -0,0 +1,104 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.exceptions.EngineUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.lambda.LambdaAsyncClient;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Delegates operations to the AWS Lambda calculator function through the async client. Calls go
+ * through a bulkhead and a circuit breaker; any failure surfaces as an
+ * {@link EngineUnavailableException} so the operation is not charged.
+ */
+@Component
+public class LambdaCalculationEngine implements CalculationEngine {
+
+    public static final String NAME = "lambda";
+
+    private static final Logger logger = LoggerFactory.getLogger(LambdaCalculationEngine.class);
+    private static final String UNAVAILABLE = "Could not invoke Lambda function, try again later";
+
+    private final LambdaAsyncClient lambdaClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    @Value("${aws.lambda.function:#{null}}")
+    private String LAMBDA_FUNCTION;
+
+    public LambdaCalculationEngine(LambdaAsyncClient lambdaClient, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        this.lambdaClient = lambdaClient;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String calculate(OperationTypeEnum operationType, Double value1, Double value2) {
+        try {
+            return calculateAsync(operationType, value1, value2).join();
+        } catch (CompletionException ex) {
+            throw (RuntimeException) ex.getCause();
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> calculateAsync(OperationTypeEnum operationType, Double value1, Double value2) {
+        InvokeRequest invokeRequest = InvokeRequest.builder()
+                .functionName(getLambdaFunction())
+                .payload(SdkBytes.fromString(buildPayload(operationType, value1, value2), StandardCharsets.UTF_8))
+                .build();
+        Supplier<CompletionStage<String>> invocation = () -> lambdaClient.invoke(invokeRequest).thenApply(LambdaCalculationEngine::getResult);
+        Supplier<CompletionStage<String>> guarded = CircuitBreaker.decorateCompletionStage(circuitBreaker,
+                Bulkhead.decorateCompletionStage(bulkhead, invocation));
+        return guarded.get().toCompletableFuture()
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    logger.warn("Error executing lambda function: {}", cause.toString());
+                    throw new EngineUnavailableException(UNAVAILABLE);
+                });
+    }
+
+    // A function error (unhandled exception in the handler) counts as a failed call
+    private static String getResult(InvokeResponse invokeResponse) {
+        if (invokeResponse.functionError() != null) {
+            throw new IllegalStateException("Lambda function error: " + invokeResponse.functionError());
+        }
+        return invokeResponse.payload().asUtf8String();
+    }
+
+    // Plain concatenation instead of String.format, which parses the format string on every call
+    static String buildPayload(OperationTypeEnum operationType, Double value1, Double value2) {
+        return "{ \"operationType\": \"" + operationType.name() + "\", \"value1\": " + value1 + ", \"value2\": " + value2 + " }";
+    }
+
+    // Only for test purposes
+    public void setLambdaFunction(String lambdaFunction) {
+        LAMBDA_FUNCTION = lambdaFunction;
+    }
+
+    private String getLambdaFunction() {
+        if (LAMBDA_FUNCTION != null) {
+            return LAMBDA_FUNCTION;
+        }
+        LAMBDA_FUNCTION = System.getenv("AWS_LAMBDA_FUNCTION");
+        return LAMBDA_FUNCTION;
+    }
+}
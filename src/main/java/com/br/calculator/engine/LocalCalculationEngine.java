@@ -0,0 +1,62 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.exceptions.OperationException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes operations in-process. Results use the same {@code "Result: <value>"} JSON string
+ * the Lambda function returns, so clients can't tell which engine served them.
+ */
+@Component
+public class LocalCalculationEngine implements CalculationEngine {
+
+    public static final String NAME = "local";
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final int RANDOM_STRING_LENGTH = 10;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String calculate(OperationTypeEnum operationType, Double value1, Double value2) {
+        if (operationType == OperationTypeEnum.RANDOM_STRING) {
+            return formatResult(randomString());
+        }
+        double a = requireValue(value1);
+        double result = switch (operationType) {
+            case ADDITION -> a + requireValue(value2);
+            case SUBTRACTION -> a - requireValue(value2);
+            case MULTIPLICATION -> a * requireValue(value2);
+            case DIVISION -> a / requireValue(value2);
+            case SQUARE_ROOT -> Math.sqrt(a);
+            default -> throw new OperationException("Operation not supported by the local engine: " + operationType);
+        };
+        return formatResult(Double.toString(result));
+    }
+
+    private static String formatResult(String value) {
+        return "\"Result: " + value + "\"";
+    }
+
+    private static double requireValue(Double value) {
+        if (value == null) {
+            throw new OperationException("Missing operation value");
+        }
+        return value;
+    }
+
+    private static String randomString() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[RANDOM_STRING_LENGTH];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+}
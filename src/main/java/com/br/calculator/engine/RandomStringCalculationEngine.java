@@ -0,0 +1,34 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.exceptions.OperationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves RANDOM_STRING from the pre-generated {@link RandomStringPool}, in the same
+ * {@code "Result: <value>"} format as the other engines.
+ */
+@Component
+public class RandomStringCalculationEngine implements CalculationEngine {
+
+    public static final String NAME = "random";
+
+    private final RandomStringPool randomStringPool;
+
+    public RandomStringCalculationEngine(RandomStringPool randomStringPool) {
+        this.randomStringPool = randomStringPool;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String calculate(OperationTypeEnum operationType, Double value1, Double value2) {
+        if (operationType != OperationTypeEnum.RANDOM_STRING) {
+            throw new OperationException("Operation not supported by the random engine: " + operationType);
+        }
+        return "\"Result: " + randomStringPool.next() + "\"";
+    }
+}
@@ -0,0 +1,84 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.config.RandomStringProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded buffer of random strings kept full by a background thread drawing from a
+ * {@link SecureRandom}. Requests take a string without blocking; when a burst drains the buffer
+ * the string is generated inline instead of waiting for the filler.
+ */
+@Component
+public class RandomStringPool {
+
+    private final SecureRandom random = new SecureRandom();
+    private final BlockingQueue<String> buffer;
+    private final char[] alphabet;
+    private final int length;
+    private final LongAdder inlineGenerations = new LongAdder();
+    private Thread filler;
+
+    public RandomStringPool(RandomStringProperties properties) {
+        if (properties.getLength() < 1 || properties.getAlphabet().isEmpty()) {
+            throw new IllegalStateException("Random string length and alphabet must not be empty");
+        }
+        this.buffer = new ArrayBlockingQueue<>(properties.getBufferSize());
+        this.alphabet = properties.getAlphabet().toCharArray();
+        this.length = properties.getLength();
+    }
+
+    @PostConstruct
+    public void start() {
+        filler = Thread.ofPlatform().daemon().name("random-string-filler").start(this::fill);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (filler != null) {
+            filler.interrupt();
+        }
+    }
+
+    public String next() {
+        String value = buffer.poll();
+        if (value != null) {
+            return value;
+        }
+        inlineGenerations.increment();
+        return generate();
+    }
+
+    public int getAvailable() {
+        return buffer.size();
+    }
+
+    public long getInlineGenerationCount() {
+        return inlineGenerations.sum();
+    }
+
+    // Blocks on put while the buffer is full, so the filler only runs after strings are taken
+    private void fill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                buffer.put(generate());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String generate() {
+        char[] chars = new char[length];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(chars);
+    }
+}
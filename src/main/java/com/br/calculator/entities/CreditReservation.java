@@ -0,0 +1,41 @@
+package com.br.calculator.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Credits held for one calculation in flight, mirrored in {@link UserBalance#getReserved()}. The
+ * row is deleted when the calculation commits or fails; rows outlive that only when the process
+ * died in between, and are reclaimed once they expire.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_credit_reservation_user", columnList = "user_id"),
+        @Index(name = "idx_credit_reservation_created", columnList = "created_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreditReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+    private Integer cost;
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+}
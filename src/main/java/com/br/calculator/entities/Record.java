@@ -1,10 +1,13 @@
 package com.br.calculator.entities;
 
+import com.br.calculator.enums.RecordStatusEnum;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,6 +15,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_record_user_active_id", columnList = "user_id, active, id"))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -26,9 +30,21 @@ public class Record {
     @ManyToOne
     private User user;
     private Integer amount;
+    // Credits charged for this record, kept so repricing the operation catalog doesn't rewrite history
+    private Integer cost;
     private Integer userBalance;
     private String operationResponse;
     private LocalDateTime date = LocalDateTime.now();
     private Boolean active;
+    // Null for records written before asynchronous calculations existed, which are all completed
+    private RecordStatusEnum status;
+
+    public Integer getChargedCost() {
+        return cost != null ? cost : operation.getCost();
+    }
+
+    public RecordStatusEnum getStatus() {
+        return status != null ? status : RecordStatusEnum.COMPLETED;
+    }
 
 }
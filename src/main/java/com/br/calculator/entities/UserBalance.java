@@ -0,0 +1,36 @@
+package com.br.calculator.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running balance of a user, kept in step with every record written or soft deleted so the
+ * current balance never has to be computed by summing the whole record history. Credits held
+ * for calculations still in flight are already taken off the balance and tracked in reserved.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBalance {
+
+    @Id
+    private Long userId;
+
+    private Integer balance;
+    private Long totalOperations;
+    private Long lastRecordId;
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    private int reserved;
+
+    // Bumped by every balance update, so a stale entity write (e.g. a rebuild) fails instead of overwriting
+    @Version
+    private long version;
+
+}
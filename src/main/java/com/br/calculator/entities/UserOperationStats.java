@@ -0,0 +1,41 @@
+package com.br.calculator.entities;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized statistics of a user for one operation type, updated together with the
+ * {@link UserBalance} on every record insert and soft delete. Counts and spend cover active
+ * records; the first and last operation times cover every operation run, deleted or not.
+ */
+@Entity
+@Table(name = "user_operation_stats")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserOperationStats {
+
+    @EmbeddedId
+    private UserOperationStatsId id;
+
+    private long operationCount;
+    private long spent;
+    private LocalDateTime firstOperationAt;
+    private LocalDateTime lastOperationAt;
+
+    // Bumped by every increment, so the reconciler never overwrites an operation it didn't see
+    @Version
+    private long version;
+
+    public UserOperationStats(UserOperationStatsId id) {
+        this.id = id;
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.br.calculator.entities;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserOperationStatsId implements Serializable {
+
+    private Long userId;
+    private OperationTypeEnum operationType;
+
+}
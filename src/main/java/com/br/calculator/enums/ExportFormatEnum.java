@@ -0,0 +1,35 @@
+package com.br.calculator.enums;
+
+public enum ExportFormatEnum {
+    NDJSON("application/x-ndjson", "ndjson"), CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormatEnum(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormatEnum fromString(String value) {
+
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+
+        try {
+            return ExportFormatEnum.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export format: " + value);
+        }
+    }
+
+}
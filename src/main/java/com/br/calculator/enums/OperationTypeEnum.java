@@ -1,7 +1,20 @@
 package com.br.calculator.enums;
 
 public enum OperationTypeEnum {
-    ADDITION, SUBTRACTION, MULTIPLICATION, DIVISION, SQUARE_ROOT, RANDOM_STRING;
+    ADDITION(true), SUBTRACTION(true), MULTIPLICATION(true), DIVISION(true), SQUARE_ROOT(true), RANDOM_STRING(false),
+    // Evaluated from its compiled form; the result memo is keyed by the values only, not the source
+    EXPRESSION(false);
+
+    private final boolean deterministic;
+
+    OperationTypeEnum(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    // Whether the result depends only on the operation type and its values, so it can be memoized
+    public boolean isDeterministic() {
+        return deterministic;
+    }
 
     public static OperationTypeEnum fromString(String value) {
 
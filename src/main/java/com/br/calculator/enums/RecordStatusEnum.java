@@ -0,0 +1,5 @@
+package com.br.calculator.enums;
+
+public enum RecordStatusEnum {
+    PENDING, COMPLETED, FAILED
+}
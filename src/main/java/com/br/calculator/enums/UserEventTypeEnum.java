@@ -0,0 +1,15 @@
+package com.br.calculator.enums;
+
+public enum UserEventTypeEnum {
+    OPERATION, BALANCE, RECORD_DELETED,
+    // Events were dropped because the client fell behind; it should refetch its stats and records
+    RESYNC,
+    // Keeps idle connections open through proxies and detects clients that went away
+    HEARTBEAT;
+
+    // Name of the server-sent event, e.g. record-deleted
+    public String getEventName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.br.calculator.events;
+
+import com.br.calculator.enums.UserEventTypeEnum;
+
+/**
+ * Change pushed to the open event streams of a user. The data is serialized as JSON.
+ */
+public record UserEvent(UserEventTypeEnum type, Object data) {
+
+    static final UserEvent RESYNC = new UserEvent(UserEventTypeEnum.RESYNC, null);
+    static final UserEvent HEARTBEAT = new UserEvent(UserEventTypeEnum.HEARTBEAT, null);
+
+}
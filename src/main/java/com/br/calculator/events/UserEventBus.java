@@ -0,0 +1,155 @@
+package com.br.calculator.events;
+
+import com.br.calculator.config.ExecutorConfig;
+import com.br.calculator.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * In-process bus that pushes balance and record changes to the server-sent event streams a user
+ * has open, so clients don't have to poll. Each stream has a bounded buffer drained on the event
+ * executor; publishing never blocks the request that caused the change.
+ * <p>
+ * Events are only delivered by the instance that serves the stream, and a stream that overflows
+ * gets a resync event instead of the events it missed.
+ */
+@Component
+public class UserEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEventBus.class);
+
+    private final Map<Long, Set<UserEventConnection>> connections = new ConcurrentHashMap<>();
+    private final Executor eventExecutor;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+    private final long timeoutMillis;
+    private final Counter overflows;
+
+    public UserEventBus(@Qualifier(ExecutorConfig.EVENT_EXECUTOR) Executor eventExecutor, MeterRegistry meterRegistry,
+                        @Value("${calculator.events.buffer-size:64}") int bufferSize,
+                        @Value("${calculator.events.max-connections-per-user:5}") int maxConnectionsPerUser,
+                        @Value("${calculator.events.timeout:30m}") Duration timeout) {
+        this.eventExecutor = eventExecutor;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.timeoutMillis = timeout.toMillis();
+        this.overflows = Counter.builder("calculator.events.overflow")
+                .description("Event streams that fell behind and were sent a resync")
+                .register(meterRegistry);
+        Gauge.builder("calculator.events.connections", this, UserEventBus::getConnectionCount)
+                .description("Open event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens an event stream for the user. Throws when the user already has the maximum number
+     * of streams open.
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        UserEventConnection connection = new UserEventConnection(userId, emitter, bufferSize);
+        connections.compute(userId, (id, userConnections) -> {
+            Set<UserEventConnection> current = userConnections != null ? userConnections : ConcurrentHashMap.newKeySet();
+            if (current.size() >= maxConnectionsPerUser) {
+                throw new TooManyRequestsException("Too many open event streams", 5);
+            }
+            current.add(connection);
+            return current;
+        });
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(ex -> remove(connection));
+        logger.info("Event stream opened for user {}", userId);
+        return emitter;
+    }
+
+    public void publish(Long userId, UserEvent event) {
+        Set<UserEventConnection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        for (UserEventConnection connection : userConnections) {
+            if (!connection.offer(event)) {
+                overflows.increment();
+            }
+            schedule(connection);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${calculator.events.heartbeat-interval:15000}")
+    public void sendHeartbeats() {
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> {
+            connection.offerHeartbeat();
+            schedule(connection);
+        }));
+    }
+
+    public int getConnectionCount() {
+        return connections.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void schedule(UserEventConnection connection) {
+        if (!connection.startDraining()) {
+            return;
+        }
+        try {
+            eventExecutor.execute(() -> drain(connection));
+        } catch (RejectedExecutionException ex) {
+            // Left buffered; the next event or heartbeat schedules it again
+            connection.stopDraining();
+        }
+    }
+
+    private void drain(UserEventConnection connection) {
+        try {
+            UserEvent event;
+            while ((event = connection.poll()) != null) {
+                connection.getEmitter().send(toSseEvent(event));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away or the emitter already completed
+            logger.debug("Event stream of user {} closed: {}", connection.getUserId(), ex.getMessage());
+            remove(connection);
+            connection.getEmitter().completeWithError(ex);
+            return;
+        } finally {
+            connection.stopDraining();
+        }
+        // An event offered after the last poll but before stopDraining would otherwise wait for the next one
+        if (connection.hasPending()) {
+            schedule(connection);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(UserEvent event) {
+        return switch (event.type()) {
+            case HEARTBEAT -> SseEmitter.event().comment("heartbeat");
+            case RESYNC -> SseEmitter.event().name(event.type().getEventName()).data("{}", MediaType.APPLICATION_JSON);
+            default -> SseEmitter.event().name(event.type().getEventName()).data(event.data(), MediaType.APPLICATION_JSON);
+        };
+    }
+
+    private void remove(UserEventConnection connection) {
+        connections.computeIfPresent(connection.getUserId(), (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.br.calculator.events;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open event stream with its bounded buffer. Publishers only ever offer to the buffer, so a
+ * slow client never blocks them; at most one task drains the buffer into the emitter at a time.
+ */
+class UserEventConnection {
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<UserEvent> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    UserEventConnection(Long userId, SseEmitter emitter, int bufferSize) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Buffers the event. When the buffer is full its events are replaced by a single resync,
+     * since the client has to refetch its state anyway once any event was lost.
+     *
+     * @return false when events were dropped
+     */
+    boolean offer(UserEvent event) {
+        if (buffer.offer(event)) {
+            return true;
+        }
+        buffer.clear();
+        buffer.offer(UserEvent.RESYNC);
+        return false;
+    }
+
+    // Heartbeats are only needed when nothing else is waiting to be sent
+    void offerHeartbeat() {
+        if (buffer.isEmpty()) {
+            buffer.offer(UserEvent.HEARTBEAT);
+        }
+    }
+
+    UserEvent poll() {
+        return buffer.poll();
+    }
+
+    boolean hasPending() {
+        return !buffer.isEmpty();
+    }
+
+    boolean startDraining() {
+        return draining.compareAndSet(false, true);
+    }
+
+    void stopDraining() {
+        draining.set(false);
+    }
+}
@@ -0,0 +1,12 @@
+package com.br.calculator.exceptions;
+
+/**
+ * The calculation engine could not produce a result (timeout, open circuit, rejected call).
+ * Nothing is charged for the operation.
+ */
+public class EngineUnavailableException extends OperationException {
+
+    public EngineUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package com.br.calculator.expression;
+
+import java.util.List;
+
+/**
+ * Postfix bytecode of an arithmetic expression. Instances are immutable and shared between
+ * threads through the expression cache; evaluation only touches a per-thread operand stack.
+ */
+public final class CompiledExpression {
+
+    static final int CONST = 0;
+    static final int LOAD = 1;
+    static final int ADD = 2;
+    static final int SUB = 3;
+    static final int MUL = 4;
+    static final int DIV = 5;
+    static final int POW = 6;
+    static final int NEG = 7;
+    static final int SQRT = 8;
+
+    private static final ThreadLocal<double[]> STACK = ThreadLocal.withInitial(() -> new double[16]);
+
+    private final int[] code;
+    private final double[] constants;
+    private final List<String> variables;
+    private final int maxStackDepth;
+    private final int operationCount;
+
+    CompiledExpression(int[] code, double[] constants, List<String> variables, int maxStackDepth, int operationCount) {
+        this.code = code;
+        this.constants = constants;
+        this.variables = variables;
+        this.maxStackDepth = maxStackDepth;
+        this.operationCount = operationCount;
+    }
+
+    /**
+     * Variable names in slot order; {@link #evaluate(double[])} expects their values in this order.
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Number of arithmetic operators and function calls, used to price the expression.
+     */
+    public int getOperationCount() {
+        return operationCount;
+    }
+
+    public double evaluate(double[] values) {
+        double[] stack = STACK.get();
+        if (stack.length < maxStackDepth) {
+            stack = new double[maxStackDepth];
+            STACK.set(stack);
+        }
+        int top = -1;
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case CONST -> stack[++top] = constants[code[++pc]];
+                case LOAD -> stack[++top] = values[code[++pc]];
+                case ADD -> {
+                    top--;
+                    stack[top] += stack[top + 1];
+                }
+                case SUB -> {
+                    top--;
+                    stack[top] -= stack[top + 1];
+                }
+                case MUL -> {
+                    top--;
+                    stack[top] *= stack[top + 1];
+                }
+                case DIV -> {
+                    top--;
+                    stack[top] /= stack[top + 1];
+                }
+                case POW -> {
+                    top--;
+                    stack[top] = Math.pow(stack[top], stack[top + 1]);
+                }
+                case NEG -> stack[top] = -stack[top];
+                case SQRT -> stack[top] = Math.sqrt(stack[top]);
+                default -> throw new IllegalStateException("Unknown opcode " + code[pc]);
+            }
+        }
+        return stack[top];
+    }
+}
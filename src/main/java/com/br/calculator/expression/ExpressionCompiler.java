@@ -0,0 +1,217 @@
+package com.br.calculator.expression;
+
+import com.br.calculator.exceptions.OperationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recursive descent compiler from infix arithmetic to {@link CompiledExpression} bytecode.
+ * <pre>
+ * expression := term (('+' | '-') term)*
+ * term       := unary (('*' | '/') unary)*
+ * unary      := '-' unary | power
+ * power      := primary ('^' unary)?
+ * primary    := number | variable | 'sqrt' '(' expression ')' | '(' expression ')'
+ * </pre>
+ * Instances are single use; call {@link #compile(String)}.
+ */
+public final class ExpressionCompiler {
+
+    public static final int MAX_LENGTH = 1000;
+
+    private final String source;
+    private int position;
+    private int[] code = new int[32];
+    private int codeLength;
+    private final List<Double> constants = new ArrayList<>();
+    private final List<String> variables = new ArrayList<>();
+    private int depth;
+    private int maxDepth;
+    private int operationCount;
+
+    private ExpressionCompiler(String source) {
+        this.source = source;
+    }
+
+    public static CompiledExpression compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new OperationException("Expression cannot be empty");
+        }
+        if (source.length() > MAX_LENGTH) {
+            throw new OperationException("Expression cannot be longer than " + MAX_LENGTH + " characters");
+        }
+        ExpressionCompiler compiler = new ExpressionCompiler(source);
+        compiler.expression();
+        compiler.skipWhitespace();
+        if (compiler.position < source.length()) {
+            throw compiler.error("Unexpected '" + source.charAt(compiler.position) + "'");
+        }
+        return new CompiledExpression(Arrays.copyOf(compiler.code, compiler.codeLength),
+                compiler.constants.stream().mapToDouble(Double::doubleValue).toArray(),
+                List.copyOf(compiler.variables), compiler.maxDepth, compiler.operationCount);
+    }
+
+    private void expression() {
+        term();
+        while (true) {
+            if (accept('+')) {
+                term();
+                emitOperator(CompiledExpression.ADD);
+            } else if (accept('-')) {
+                term();
+                emitOperator(CompiledExpression.SUB);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void term() {
+        unary();
+        while (true) {
+            if (accept('*')) {
+                unary();
+                emitOperator(CompiledExpression.MUL);
+            } else if (accept('/')) {
+                unary();
+                emitOperator(CompiledExpression.DIV);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void unary() {
+        if (accept('-')) {
+            unary();
+            emitFunction(CompiledExpression.NEG);
+        } else {
+            power();
+        }
+    }
+
+    // Right associative: 2^3^2 = 2^(3^2)
+    private void power() {
+        primary();
+        if (accept('^')) {
+            unary();
+            emitOperator(CompiledExpression.POW);
+        }
+    }
+
+    private void primary() {
+        skipWhitespace();
+        if (position >= source.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = source.charAt(position);
+        if (accept('(')) {
+            expression();
+            expect(')');
+        } else if (Character.isDigit(c) || c == '.') {
+            number();
+        } else if (Character.isLetter(c) || c == '_') {
+            String name = identifier();
+            if (name.equals("sqrt")) {
+                expect('(');
+                expression();
+                expect(')');
+                emitFunction(CompiledExpression.SQRT);
+            } else {
+                int slot = variables.indexOf(name);
+                if (slot < 0) {
+                    slot = variables.size();
+                    variables.add(name);
+                }
+                emit(CompiledExpression.LOAD, slot);
+            }
+        } else {
+            throw error("Unexpected '" + c + "'");
+        }
+    }
+
+    private void number() {
+        int start = position;
+        while (position < source.length()
+                && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+        if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+            position++;
+            if (position < source.length() && (source.charAt(position) == '+' || source.charAt(position) == '-')) {
+                position++;
+            }
+            while (position < source.length() && Character.isDigit(source.charAt(position))) {
+                position++;
+            }
+        }
+        try {
+            constants.add(Double.parseDouble(source.substring(start, position)));
+        } catch (NumberFormatException ex) {
+            throw error("Invalid number '" + source.substring(start, position) + "'");
+        }
+        emit(CompiledExpression.CONST, constants.size() - 1);
+    }
+
+    private String identifier() {
+        int start = position;
+        while (position < source.length()
+                && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+            position++;
+        }
+        return source.substring(start, position);
+    }
+
+    private void emit(int opcode, int operand) {
+        append(opcode);
+        append(operand);
+        maxDepth = Math.max(maxDepth, ++depth);
+    }
+
+    // Binary operator: pops two operands, pushes one
+    private void emitOperator(int opcode) {
+        append(opcode);
+        depth--;
+        operationCount++;
+    }
+
+    // Unary operator or function: replaces the top operand
+    private void emitFunction(int opcode) {
+        append(opcode);
+        operationCount++;
+    }
+
+    private void append(int value) {
+        if (codeLength == code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        code[codeLength++] = value;
+    }
+
+    private boolean accept(char expected) {
+        skipWhitespace();
+        if (position < source.length() && source.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (!accept(expected)) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+
+    private OperationException error(String message) {
+        return new OperationException("Invalid expression: " + message + " at position " + position);
+    }
+}
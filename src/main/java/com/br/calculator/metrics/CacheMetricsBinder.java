@@ -0,0 +1,42 @@
+package com.br.calculator.metrics;
+
+import com.br.calculator.cache.InstrumentedCache;
+import com.br.calculator.cache.InstrumentedCacheManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the counters of every {@link InstrumentedCache} under the standard {@code cache.*}
+ * meter names; the auto-configured cache metrics don't recognise the wrapped caches.
+ */
+@Component
+public class CacheMetricsBinder implements MeterBinder {
+
+    private final InstrumentedCacheManager cacheManager;
+
+    public CacheMetricsBinder(InstrumentedCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : cacheManager.getCacheNames()) {
+            InstrumentedCache cache = cacheManager.getCache(name);
+            FunctionCounter.builder("cache.gets", cache, InstrumentedCache::getHitCount)
+                    .tags("cache", name, "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", cache, InstrumentedCache::getMissCount)
+                    .tags("cache", name, "result", "miss").register(registry);
+            FunctionCounter.builder("cache.puts", cache, InstrumentedCache::getPutCount)
+                    .tag("cache", name).register(registry);
+            FunctionCounter.builder("cache.evictions", cache, InstrumentedCache::getEvictionCount)
+                    .tag("cache", name).register(registry);
+            FunctionCounter.builder("cache.evictions.capacity", cache, InstrumentedCache::getCapacityEvictionCount)
+                    .tag("cache", name).register(registry);
+            Gauge.builder("cache.size", cache, InstrumentedCache::getSize)
+                    .tag("cache", name).register(registry);
+        }
+    }
+}
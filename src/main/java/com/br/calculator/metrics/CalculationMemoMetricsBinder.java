@@ -0,0 +1,29 @@
+package com.br.calculator.metrics;
+
+import com.br.calculator.engine.CalculationEngineRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes hits, misses and size of the calculation result memo as {@code cache.*} meters
+ * tagged {@code cache=calculationResults}; the hit ratio is hits / (hits + misses).
+ */
+@Component
+public class CalculationMemoMetricsBinder implements MeterBinder {
+
+    public static final String CACHE_NAME = "calculationResults";
+
+    private final CalculationEngineRouter calculationEngineRouter;
+
+    public CalculationMemoMetricsBinder(CalculationEngineRouter calculationEngineRouter) {
+        this.calculationEngineRouter = calculationEngineRouter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        calculationEngineRouter.getResultCache()
+                .ifPresent(cache -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+}
@@ -0,0 +1,58 @@
+package com.br.calculator.metrics;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Times each stage of the calculation pipeline, tagged by operation type and outcome, so the
+ * stage dominating the tail latency shows up in the percentiles of {@value #STAGE_TIMER}.
+ */
+@Component
+public class CalculationMetrics {
+
+    public static final String STAGE_TIMER = "calculator.operation.stage";
+    public static final String OPERATION_TIMER = "calculator.operation";
+
+    public static final String VALIDATION = "validation";
+    public static final String RESERVE = "reserve";
+    public static final String ENGINE = "engine";
+    public static final String RECORD_SAVE = "record_save";
+    public static final String CACHE_UPDATE = "cache_update";
+
+    private final MeterRegistry meterRegistry;
+
+    public CalculationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(OperationTypeEnum operationType, Supplier<T> operation) {
+        return record(Timer.builder(OPERATION_TIMER), operationType, operation);
+    }
+
+    public <T> T timeStage(String stage, OperationTypeEnum operationType, Supplier<T> operation) {
+        return record(Timer.builder(STAGE_TIMER).tag("stage", stage), operationType, operation);
+    }
+
+    public void timeStage(String stage, OperationTypeEnum operationType, Runnable operation) {
+        timeStage(stage, operationType, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private <T> T record(Timer.Builder timer, OperationTypeEnum operationType, Supplier<T> operation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = operation.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer.tag("type", operationType.name()).tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.br.calculator.metrics;
+
+import com.br.calculator.engine.RandomStringPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffer fill level and the strings generated inline because the buffer was empty; a growing
+ * inline count means the buffer is too small for the traffic.
+ */
+@Component
+public class RandomStringPoolMetricsBinder implements MeterBinder {
+
+    private final RandomStringPool randomStringPool;
+
+    public RandomStringPoolMetricsBinder(RandomStringPool randomStringPool) {
+        this.randomStringPool = randomStringPool;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("calculator.random_string.buffer", randomStringPool, RandomStringPool::getAvailable)
+                .register(registry);
+        FunctionCounter.builder("calculator.random_string.inline", randomStringPool, RandomStringPool::getInlineGenerationCount)
+                .register(registry);
+    }
+}
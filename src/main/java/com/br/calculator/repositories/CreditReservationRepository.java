@@ -0,0 +1,27 @@
+package com.br.calculator.repositories;
+
+import com.br.calculator.entities.CreditReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CreditReservationRepository extends JpaRepository<CreditReservation, Long> {
+
+    // Returns 0 when the reservation was already committed, released or reclaimed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from CreditReservation r where r.id = :id")
+    int deleteReservation(@Param("id") Long id);
+
+    @Query("select coalesce(sum(r.cost), 0) from CreditReservation r where r.userId = :userId")
+    long sumCostByUserId(@Param("userId") Long userId);
+
+    @Query("select r from CreditReservation r where r.createdAt < :createdBefore order by r.id")
+    List<CreditReservation> findExpired(@Param("createdBefore") LocalDateTime createdBefore, Pageable pageable);
+}
@@ -1,10 +1,14 @@
 package com.br.calculator.repositories;
 
 import com.br.calculator.entities.Operation;
+import com.br.calculator.enums.OperationTypeEnum;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface OperationRepository extends JpaRepository<Operation, Long> {
 
+    Optional<Operation> findFirstByTypeOrderByIdDesc(OperationTypeEnum type);
 }
@@ -0,0 +1,13 @@
+package com.br.calculator.repositories;
+
+import com.br.calculator.entities.Record;
+
+import java.util.List;
+
+public interface RecordBatchRepository {
+
+    /**
+     * Inserts the records with a single JDBC batch. Generated ids are not set on the records.
+     */
+    void batchInsert(List<Record> records);
+}
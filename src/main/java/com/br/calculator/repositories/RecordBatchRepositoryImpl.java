@@ -0,0 +1,34 @@
+package com.br.calculator.repositories;
+
+import com.br.calculator.entities.Record;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public class RecordBatchRepositoryImpl implements RecordBatchRepository {
+
+    private static final String INSERT_RECORD = "insert into record (operation_id, user_id, amount, cost, user_balance, operation_response, date, active, status) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecordBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(List<Record> records) {
+        jdbcTemplate.batchUpdate(INSERT_RECORD, records, records.size(), (statement, record) -> {
+            statement.setLong(1, record.getOperation().getId());
+            statement.setLong(2, record.getUser().getId());
+            statement.setObject(3, record.getAmount());
+            statement.setObject(4, record.getCost());
+            statement.setObject(5, record.getUserBalance());
+            statement.setString(6, record.getOperationResponse());
+            statement.setTimestamp(7, Timestamp.valueOf(record.getDate()));
+            statement.setBoolean(8, record.getActive());
+            statement.setInt(9, record.getStatus().ordinal());
+        });
+    }
+}
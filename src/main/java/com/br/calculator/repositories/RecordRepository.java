@@ -1,20 +1,72 @@
 package com.br.calculator.repositories;
 
+import com.br.calculator.dto.OperationTypeTotals;
+import com.br.calculator.dto.RecordResponse;
 import com.br.calculator.entities.Record;
 import com.br.calculator.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface RecordRepository extends JpaRepository<Record, Long> {
+public interface RecordRepository extends JpaRepository<Record, Long>, RecordBatchRepository {
 
     Optional<Record> findByIdAndActive(Long id, Boolean active);
 
     Optional<List<Record>> findAllByUserAndActive(User user, Boolean active);
     Page<Record> findAllByUserAndActive(User user, Boolean active, Pageable pageable);
+
+    long countByUserAndActive(User user, Boolean active);
+
+    // Record listings project straight into the response in one joined query, without loading the entities
+    String RECORD_RESPONSE = "select new com.br.calculator.dto.RecordResponse(r.id, r.id, o.type, coalesce(r.cost, o.cost), r.amount, r.date) " +
+            "from Record r join r.operation o where r.user.id = :userId and r.active = true";
+
+    @Query(value = RECORD_RESPONSE,
+            countQuery = "select count(r) from Record r where r.user.id = :userId and r.active = true")
+    Page<RecordResponse> findRecordResponses(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset pagination over (user_id, active, id); a List result skips the count query
+    @Query(RECORD_RESPONSE + " and r.id > :id")
+    List<RecordResponse> findRecordResponsesAfter(@Param("userId") Long userId, @Param("id") Long id, Pageable pageable);
+
+    @Query(RECORD_RESPONSE + " and r.id < :id")
+    List<RecordResponse> findRecordResponsesBefore(@Param("userId") Long userId, @Param("id") Long id, Pageable pageable);
+
+    // Rows fetched per round trip by exports. MySQL only fetches in chunks with useCursorFetch=true,
+    // set on the datasource; otherwise Connector/J reads the whole result before the first row
+    String EXPORT_FETCH_SIZE = "500";
+
+    // Forward-only cursor over the active records of a user in [from, to); must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(RECORD_RESPONSE + " and r.date >= :from and r.date < :to order by r.id")
+    Stream<RecordResponse> streamRecordResponses(@Param("userId") Long userId, @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    @Query("select coalesce(sum(coalesce(r.cost, r.operation.cost)), 0) from Record r where r.user = :user and r.active = true")
+    long sumActiveCostByUser(@Param("user") User user);
+
+    @Query("select max(r.id) from Record r where r.user = :user and r.active = true")
+    Long findLastActiveRecordId(@Param("user") User user);
+
+    // Per-type statistics of a range of users: counts and spend of active records, times of all records
+    @Query("select new com.br.calculator.dto.OperationTypeTotals(r.user.id, o.type, " +
+            "sum(case when r.active = true then 1 else 0 end), " +
+            "sum(case when r.active = true then coalesce(r.cost, o.cost) else 0 end), min(r.date), max(r.date)) " +
+            "from Record r join r.operation o where r.user.id between :fromUserId and :toUserId group by r.user.id, o.type")
+    List<OperationTypeTotals> sumByUserAndType(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
 }
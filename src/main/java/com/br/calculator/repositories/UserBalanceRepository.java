@@ -0,0 +1,51 @@
+package com.br.calculator.repositories;
+
+import com.br.calculator.entities.UserBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
+
+    // Conditional decrement: charges nothing and returns 0 when the balance doesn't cover the cost
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserBalance b set b.balance = b.balance - :cost, b.totalOperations = b.totalOperations + :count, " +
+            "b.lastRecordId = :recordId, b.updatedAt = :updatedAt, b.version = b.version + 1 " +
+            "where b.userId = :userId and b.balance >= :cost")
+    int applyOperations(@Param("userId") Long userId, @Param("cost") Integer cost, @Param("count") Long count,
+                        @Param("recordId") Long recordId, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserBalance b set b.balance = b.balance + :cost, b.totalOperations = b.totalOperations - 1, " +
+            "b.updatedAt = :updatedAt, b.version = b.version + 1 where b.userId = :userId")
+    int revertOperation(@Param("userId") Long userId, @Param("cost") Integer cost,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Holds credits for a calculation in flight; returns 0 when the balance doesn't cover the cost
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserBalance b set b.balance = b.balance - :cost, b.reserved = b.reserved + :cost, " +
+            "b.updatedAt = :updatedAt, b.version = b.version + 1 where b.userId = :userId and b.balance >= :cost")
+    int reserveCredits(@Param("userId") Long userId, @Param("cost") Integer cost,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Turns a reservation into a charge: the balance was already decremented by reserveCredits, and
+    // whatever of the reservation was not charged goes back to it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserBalance b set b.balance = b.balance + :reserved - :charged, b.reserved = b.reserved - :reserved, " +
+            "b.totalOperations = b.totalOperations + :count, b.lastRecordId = :recordId, b.updatedAt = :updatedAt, " +
+            "b.version = b.version + 1 where b.userId = :userId and b.reserved >= :reserved")
+    int commitReservation(@Param("userId") Long userId, @Param("reserved") Integer reserved, @Param("charged") Integer charged,
+                          @Param("count") Long count, @Param("recordId") Long recordId,
+                          @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserBalance b set b.balance = b.balance + :cost, b.reserved = b.reserved - :cost, " +
+            "b.updatedAt = :updatedAt, b.version = b.version + 1 where b.userId = :userId and b.reserved >= :cost")
+    int releaseReservation(@Param("userId") Long userId, @Param("cost") Integer cost,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+}
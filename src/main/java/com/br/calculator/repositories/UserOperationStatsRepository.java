@@ -0,0 +1,37 @@
+package com.br.calculator.repositories;
+
+import com.br.calculator.entities.UserOperationStats;
+import com.br.calculator.entities.UserOperationStatsId;
+import com.br.calculator.enums.OperationTypeEnum;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserOperationStatsRepository extends JpaRepository<UserOperationStats, UserOperationStatsId> {
+
+    List<UserOperationStats> findByIdUserId(Long userId);
+
+    List<UserOperationStats> findByIdUserIdBetween(Long fromUserId, Long toUserId);
+
+    // Returns 0 when the user has no row for the type yet, which the caller rebuilds from the records
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserOperationStats s set s.operationCount = s.operationCount + :count, s.spent = s.spent + :cost, " +
+            "s.firstOperationAt = case when s.firstOperationAt is null or s.firstOperationAt > :first then :first else s.firstOperationAt end, " +
+            "s.lastOperationAt = case when s.lastOperationAt is null or s.lastOperationAt < :last then :last else s.lastOperationAt end, " +
+            "s.version = s.version + 1 where s.id.userId = :userId and s.id.operationType = :operationType")
+    int applyOperations(@Param("userId") Long userId, @Param("operationType") OperationTypeEnum operationType,
+                        @Param("count") Long count, @Param("cost") Long cost,
+                        @Param("first") LocalDateTime first, @Param("last") LocalDateTime last);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserOperationStats s set s.operationCount = s.operationCount - 1, s.spent = s.spent - :cost, " +
+            "s.version = s.version + 1 where s.id.userId = :userId and s.id.operationType = :operationType")
+    int revertOperation(@Param("userId") Long userId, @Param("operationType") OperationTypeEnum operationType,
+                        @Param("cost") Long cost);
+}
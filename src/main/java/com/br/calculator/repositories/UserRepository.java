@@ -1,12 +1,20 @@
 package com.br.calculator.repositories;
 
 import com.br.calculator.entities.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Keyset pagination over user ids, used by background jobs that walk every user
+    @Query("select u.id from User u where u.id > :id order by u.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,50 @@
+package com.br.calculator.security;
+
+import com.br.calculator.exceptions.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-window limit on login attempts per username and per client address. Rejected attempts
+ * never reach the password encoder.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, AtomicInteger> attempts;
+    private final int maxAttemptsPerUser;
+    private final int maxAttemptsPerAddress;
+    private final long windowSeconds;
+
+    public LoginRateLimiter(@Value("${calculator.login.max-attempts-per-user:10}") int maxAttemptsPerUser,
+                            @Value("${calculator.login.max-attempts-per-address:50}") int maxAttemptsPerAddress,
+                            @Value("${calculator.login.window:1m}") Duration window) {
+        this.maxAttemptsPerUser = maxAttemptsPerUser;
+        this.maxAttemptsPerAddress = maxAttemptsPerAddress;
+        this.windowSeconds = Math.max(1, window.toSeconds());
+        this.attempts = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public void acquire(String username, String address) {
+        if (increment("user:" + username) > maxAttemptsPerUser
+                || increment("address:" + address) > maxAttemptsPerAddress) {
+            throw new TooManyRequestsException("Too many login attempts, try again later", windowSeconds);
+        }
+    }
+
+    public void reset(String username) {
+        attempts.invalidate("user:" + username);
+    }
+
+    private int increment(String key) {
+        return attempts.get(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+}
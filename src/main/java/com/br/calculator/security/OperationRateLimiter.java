@@ -0,0 +1,99 @@
+package com.br.calculator.security;
+
+import com.br.calculator.config.RateLimitProperties;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets per user and operation type, implemented as GCRA: each bucket is a
+ * single {@link AtomicLong} holding the theoretical arrival time of the next request, advanced
+ * with a compare-and-set. Buckets of idle users expire.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class OperationRateLimiter {
+
+    private static final int TYPE_BITS = 4;
+    // Bucket for requests without a known operation type
+    private static final int UNKNOWN_TYPE = (1 << TYPE_BITS) - 1;
+
+    private final Cache<Long, AtomicLong> buckets;
+    private final long[] emissionIntervals = new long[1 << TYPE_BITS];
+    private final long[] burstTolerances = new long[1 << TYPE_BITS];
+    private final int maxPermits;
+
+    public OperationRateLimiter(RateLimitProperties properties) {
+        long periodNanos = properties.getPeriod().toNanos();
+        this.maxPermits = Math.max(1, properties.getBurst());
+        for (int i = 0; i < emissionIntervals.length; i++) {
+            int limit = i < OperationTypeEnum.values().length
+                    ? properties.getLimits().getOrDefault(OperationTypeEnum.values()[i], properties.getDefaultLimit())
+                    : properties.getDefaultLimit();
+            emissionIntervals[i] = periodNanos / Math.max(1, limit);
+            burstTolerances[i] = emissionIntervals[i] * Math.max(0, properties.getBurst() - 1);
+        }
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getPeriod().multipliedBy(2))
+                .build();
+    }
+
+    /**
+     * Takes one request from the bucket of the user and operation type.
+     *
+     * @return {@link Duration#ZERO} when allowed, otherwise how long until the request would be
+     */
+    public Duration tryAcquire(long userId, OperationTypeEnum operationType) {
+        return tryAcquire(userId, operationType, 1);
+    }
+
+    /**
+     * Takes several requests at once, e.g. the operations of a batch. They are admitted only when
+     * they all fit in the bucket, so more than {@link #getMaxPermits()} requests are never admitted.
+     *
+     * @return {@link Duration#ZERO} when allowed, otherwise how long until the requests would be
+     */
+    public Duration tryAcquire(long userId, OperationTypeEnum operationType, int permits) {
+        int type = type(operationType);
+        AtomicLong theoreticalArrival = bucket(userId, type);
+        long increment = emissionIntervals[type] * permits;
+        long burstTolerance = burstTolerances[type];
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = start + increment;
+            long wait = next - now - burstTolerance - emissionIntervals[type];
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    // Most requests a single call can take: a full bucket holds the burst
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    // Gives back requests taken by tryAcquire, when a request taking several buckets is refused by a later one
+    public void release(long userId, OperationTypeEnum operationType, int permits) {
+        int type = type(operationType);
+        bucket(userId, type).addAndGet(-emissionIntervals[type] * permits);
+    }
+
+    private static int type(OperationTypeEnum operationType) {
+        return operationType != null ? operationType.ordinal() : UNKNOWN_TYPE;
+    }
+
+    private AtomicLong bucket(long userId, int type) {
+        return buckets.get(userId << TYPE_BITS | type, key -> new AtomicLong(Long.MIN_VALUE));
+    }
+}
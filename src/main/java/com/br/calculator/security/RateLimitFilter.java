@@ -0,0 +1,173 @@
+package com.br.calculator.security;
+
+import com.br.calculator.config.RateLimitProperties;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the per-user, per-operation-type limits of {@link OperationRateLimiter} to
+ * {@code POST /operation/calculate} and, one request per item, to {@code POST /operation/calculate/batch}.
+ * Runs right after the JWT filter, so rejected requests never reach the controller, the ledger or
+ * the calculation engine.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final String CALCULATE_PATH = "/operation/calculate";
+    private static final String BATCH_PATH = "/operation/calculate/batch";
+
+    private final OperationRateLimiter operationRateLimiter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxBodySize;
+
+    public RateLimitFilter(OperationRateLimiter operationRateLimiter, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry, RateLimitProperties properties) {
+        this.operationRateLimiter = operationRateLimiter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.isEnabled();
+        this.maxBodySize = (int) properties.getMaxBodySize().toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !HttpMethod.POST.matches(request.getMethod())
+                || !(CALCULATE_PATH.equals(request.getServletPath()) || BATCH_PATH.equals(request.getServletPath()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        byte[] body = readBody(request);
+        if (body == null) {
+            logger.warn("Rejected a calculation body over {} bytes from user {}", maxBodySize, principal.getUser().getId());
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            response.getWriter().write("Request body too large");
+            return;
+        }
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request, body);
+        Map<OperationTypeEnum, Integer> permits = BATCH_PATH.equals(request.getServletPath())
+                ? readBatchOperationTypes(body)
+                : singletonPermit(readOperationType(body));
+        if (!acquire(principal.getUser().getId(), permits, response)) {
+            return;
+        }
+        chain.doFilter(cachedRequest, response);
+    }
+
+    // Takes the requests from every bucket involved, giving back the ones already taken if a later bucket refuses
+    private boolean acquire(Long userId, Map<OperationTypeEnum, Integer> permits, HttpServletResponse response) throws IOException {
+        for (Map.Entry<OperationTypeEnum, Integer> entry : permits.entrySet()) {
+            // Would never fit in the bucket, so there is no point in asking the client to retry
+            if (entry.getValue() > operationRateLimiter.getMaxPermits()) {
+                logger.warn("Rejected a batch of {} {} operations from user {}", entry.getValue(), entry.getKey(), userId);
+                countRejected(entry.getKey());
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.getWriter().write("A batch cannot contain more than " + operationRateLimiter.getMaxPermits()
+                        + " operations of the same type");
+                return false;
+            }
+        }
+        List<OperationTypeEnum> acquired = new ArrayList<>();
+        for (Map.Entry<OperationTypeEnum, Integer> entry : permits.entrySet()) {
+            OperationTypeEnum operationType = entry.getKey();
+            Duration retryAfter = operationRateLimiter.tryAcquire(userId, operationType, entry.getValue());
+            if (!retryAfter.isZero()) {
+                acquired.forEach(type -> operationRateLimiter.release(userId, type, permits.get(type)));
+                logger.warn("Rate limit exceeded by user {} for {}", userId, operationType);
+                countRejected(operationType);
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                // Retry-After is in whole seconds, rounded up so the retry finds a token
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
+                response.getWriter().write("Too many operations, try again later");
+                return false;
+            }
+            acquired.add(operationType);
+        }
+        return true;
+    }
+
+    private void countRejected(OperationTypeEnum operationType) {
+        Counter.builder("calculator.rate_limit.rejected")
+                .tag("type", operationType != null ? operationType.name() : "UNKNOWN")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Reads at most maxBodySize bytes, returning null when the body is larger
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBodySize) {
+            return null;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodySize + 1);
+        return body.length > maxBodySize ? null : body;
+    }
+
+    private static Map<OperationTypeEnum, Integer> singletonPermit(OperationTypeEnum operationType) {
+        Map<OperationTypeEnum, Integer> permits = new LinkedHashMap<>();
+        permits.put(operationType, 1);
+        return permits;
+    }
+
+    // Malformed bodies and unknown types share one bucket; the controller rejects them afterwards
+    private OperationTypeEnum readOperationType(byte[] body) {
+        try {
+            return operationType(objectMapper.readTree(body));
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    // Counts the items of a batch per operation type; a malformed batch takes one request from the unknown bucket
+    private Map<OperationTypeEnum, Integer> readBatchOperationTypes(byte[] body) {
+        Map<OperationTypeEnum, Integer> permits = new LinkedHashMap<>();
+        try {
+            JsonNode operations = objectMapper.readTree(body);
+            if (operations != null && operations.isArray()) {
+                operations.forEach(operation -> permits.merge(operationType(operation), 1, Integer::sum));
+            }
+        } catch (IOException ex) {
+            permits.clear();
+        }
+        return permits.isEmpty() ? singletonPermit(null) : permits;
+    }
+
+    private static OperationTypeEnum operationType(JsonNode operation) {
+        String value = operation != null ? operation.path("operationType").asText(null) : null;
+        try {
+            return value != null ? OperationTypeEnum.fromString(value) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
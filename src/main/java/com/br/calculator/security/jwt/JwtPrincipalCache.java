@@ -0,0 +1,80 @@
+package com.br.calculator.security.jwt;
+
+import com.br.calculator.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Bounded cache of validated tokens. Entries are keyed by the SHA-256 of the token and expire at
+ * the token's expiration (capped by {@code jwt.principal-cache.max-ttl}), so a cached token skips
+ * both the signature check and the user lookup.
+ */
+@Component
+public class JwtPrincipalCache {
+
+    private final Cache<String, Entry> cache;
+
+    public JwtPrincipalCache(@Value("${jwt.principal-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${jwt.principal-cache.max-ttl:10m}") Duration maxTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        long untilExpiration = Duration.ofMillis(entry.expiresAt() - System.currentTimeMillis()).toNanos();
+                        return Math.max(0, Math.min(untilExpiration, maxTtl.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public AuthenticatedUser get(String token) {
+        Entry entry = cache.getIfPresent(hash(token));
+        return entry != null ? entry.principal() : null;
+    }
+
+    public void put(String token, AuthenticatedUser principal, Date expiration) {
+        cache.put(hash(token), new Entry(principal, expiration.getTime()));
+    }
+
+    public void evict(String token) {
+        cache.invalidate(hash(token));
+    }
+
+    // Scans the cache, which only happens on rare account changes such as a status change
+    public void evictUser(Long userId) {
+        cache.asMap().values().removeIf(entry -> userId.equals(entry.principal().getUser().getId()));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private record Entry(AuthenticatedUser principal, long expiresAt) {
+    }
+}
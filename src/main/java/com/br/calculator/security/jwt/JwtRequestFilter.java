@@ -1,13 +1,20 @@
 package com.br.calculator.security.jwt;
 
+import static com.br.calculator.enums.UserStatusEnum.ACTIVE;
+import com.br.calculator.security.AuthenticatedUser;
 import com.br.calculator.services.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -17,37 +24,73 @@ import java.io.IOException;
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtRequestFilter.class);
+
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final JwtPrincipalCache jwtPrincipalCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final boolean stateless;
 
-    public JwtRequestFilter(UserService userService, JwtUtil jwtUtil) {
+    public JwtRequestFilter(UserService userService, JwtUtil jwtUtil, JwtPrincipalCache jwtPrincipalCache,
+                            TokenRevocationList tokenRevocationList,
+                            @Value("${jwt.principal-mode:stateless}") String principalMode) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.jwtPrincipalCache = jwtPrincipalCache;
+        this.tokenRevocationList = tokenRevocationList;
+        this.stateless = "stateless".equalsIgnoreCase(principalMode);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
-        final String authorizationHeader = request.getHeader("Authorization");
-
-        String username = null;
-        String jwt = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userService.loadUserByUsername(username);
+        final String jwt = getBearerToken(request);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser principal = resolvePrincipal(jwt);
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
         }
         chain.doFilter(request, response);
     }
-}
 
+    public static String getBearerToken(HttpServletRequest request) {
+        final String authorizationHeader = request.getHeader("Authorization");
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            return authorizationHeader.substring(7);
+        }
+        return null;
+    }
+
+    // Cached tokens skip the signature check and the user lookup; others are parsed exactly once.
+    // In stateless mode the principal comes from the signed claims and the user table is not read.
+    private AuthenticatedUser resolvePrincipal(String jwt) {
+        AuthenticatedUser principal = jwtPrincipalCache.get(jwt);
+        if (principal != null) {
+            return principal;
+        }
+        try {
+            Claims claims = jwtUtil.parseToken(jwt);
+            if (tokenRevocationList.isRevoked(claims.getId())) {
+                return null;
+            }
+            principal = stateless ? jwtUtil.extractPrincipal(claims) : null;
+            if (principal == null) {
+                principal = (AuthenticatedUser) userService.loadUserByUsername(claims.getSubject());
+            }
+            if (principal.getUser().getStatus() != ACTIVE || !jwtUtil.validateToken(claims, principal)
+                    || tokenRevocationList.isRevoked(principal.getUser().getId(), claims.getIssuedAt())) {
+                return null;
+            }
+            jwtPrincipalCache.put(jwt, principal, claims.getExpiration());
+            return principal;
+        } catch (JwtException | UsernameNotFoundException ex) {
+            logger.debug("Rejected bearer token: {}", ex.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.br.calculator.security.jwt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of revoked token ids ({@code jti}), and of users whose tokens issued before a
+ * point in time are revoked, e.g. after a status change that stateless tokens still carry in
+ * their claims. Entries are dropped once the tokens would have expired anyway, so the list only
+ * holds tokens that are still otherwise valid.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+    private final boolean enabled;
+
+    public TokenRevocationList(@Value("${jwt.revocation.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void revoke(String tokenId, Date expiration) {
+        if (enabled && tokenId != null) {
+            revoked.put(tokenId, expiration.getTime());
+        }
+    }
+
+    // Token issue times have second precision, so a token issued in the same second as the revocation stays valid
+    public void revokeUser(Long userId) {
+        if (enabled && userId != null) {
+            revokedUsers.put(userId, System.currentTimeMillis() / 1000 * 1000);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return enabled && tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        if (!enabled || userId == null) {
+            return false;
+        }
+        Long revokedAt = revokedUsers.get(userId);
+        return revokedAt != null && (issuedAt == null || issuedAt.getTime() < revokedAt);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt + JwtUtil.TOKEN_VALIDITY.toMillis() < now);
+    }
+}
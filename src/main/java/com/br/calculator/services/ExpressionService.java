@@ -0,0 +1,56 @@
+package com.br.calculator.services;
+
+import com.br.calculator.exceptions.OperationException;
+import com.br.calculator.expression.CompiledExpression;
+import com.br.calculator.expression.ExpressionCompiler;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles EXPRESSION operations once per distinct source text and evaluates the cached bytecode
+ * with the variables of each request.
+ */
+@Service
+public class ExpressionService {
+
+    private final Cache<String, CompiledExpression> compiledExpressions;
+
+    public ExpressionService(@Value("${calculator.expression.cache-size:10000}") long cacheSize) {
+        this.compiledExpressions = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public CompiledExpression compile(String expression) {
+        if (expression == null) {
+            throw new OperationException("Expression cannot be empty");
+        }
+        return compiledExpressions.get(expression, ExpressionCompiler::compile);
+    }
+
+    // Priced per operator, so a formula costs what chaining its steps would have cost
+    public int getCost(String expression, int unitCost) {
+        return unitCost * Math.max(1, compile(expression).getOperationCount());
+    }
+
+    public String evaluate(String expression, Map<String, Double> variables) {
+        CompiledExpression compiled = compile(expression);
+        List<String> names = compiled.getVariables();
+        double[] values = new double[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            Double value = variables != null ? variables.get(names.get(i)) : null;
+            if (value == null) {
+                throw new OperationException("Missing value for variable '" + names.get(i) + "'");
+            }
+            values[i] = value;
+        }
+        double result = compiled.evaluate(values);
+        if (!Double.isFinite(result)) {
+            throw new OperationException("Expression result is not a finite number");
+        }
+        return "\"Result: " + result + "\"";
+    }
+}
@@ -0,0 +1,352 @@
+package com.br.calculator.services;
+
+import com.br.calculator.dto.OperationTypeTotals;
+import com.br.calculator.entities.CreditReservation;
+import com.br.calculator.entities.Record;
+import com.br.calculator.entities.User;
+import com.br.calculator.entities.UserBalance;
+import com.br.calculator.entities.UserOperationStats;
+import com.br.calculator.entities.UserOperationStatsId;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.enums.RecordStatusEnum;
+import com.br.calculator.exceptions.OperationException;
+import com.br.calculator.repositories.CreditReservationRepository;
+import com.br.calculator.repositories.RecordRepository;
+import com.br.calculator.repositories.UserBalanceRepository;
+import com.br.calculator.repositories.UserOperationStatsRepository;
+import com.br.calculator.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-user {@link UserBalance} row and {@link UserOperationStats} rows in step with the
+ * record history. Every record insert and soft delete goes through here so balance checks and
+ * user statistics never need to scan the records.
+ * <p>
+ * Charges are conditional single-statement updates ({@code balance >= cost}), so concurrent
+ * calculations of one user can't overdraw it. Every calculation, synchronous, async or batch,
+ * reserves its credits before calling the engine and commits what it used and releases the rest
+ * afterwards; no lock is held meanwhile.
+ * Each reservation is also a {@link CreditReservation} row, so credits held by a calculation that
+ * never finished are given back once the reservation expires.
+ * <p>
+ * A user's first write creates their balance and statistics rows from the committed records in a
+ * transaction of its own, before the reservation's transaction starts, so two first requests racing
+ * on the insert can't fail the charge: the loser of the duplicate key reads the row the winner wrote.
+ */
+@Service
+public class LedgerService {
+
+    public static final int INITIAL_BALANCE = 200;
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerService.class);
+    private static final String INSUFFICIENT_CREDITS = "Insufficient credits to execute this operation";
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final RecordRepository recordRepository;
+    private final UserRepository userRepository;
+    private final UserOperationStatsRepository userOperationStatsRepository;
+    private final CreditReservationRepository creditReservationRepository;
+    private final UserCacheService userCacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    // Longer than any calculation can take, engine timeouts and retries included
+    @Value("${ledger.reservation.ttl:5m}")
+    private Duration reservationTtl = Duration.ofMinutes(5);
+
+    public LedgerService(UserBalanceRepository userBalanceRepository, RecordRepository recordRepository, UserRepository userRepository,
+                         UserOperationStatsRepository userOperationStatsRepository,
+                         CreditReservationRepository creditReservationRepository, UserCacheService userCacheService,
+                         PlatformTransactionManager transactionManager) {
+        this.userBalanceRepository = userBalanceRepository;
+        this.recordRepository = recordRepository;
+        this.userRepository = userRepository;
+        this.userOperationStatsRepository = userOperationStatsRepository;
+        this.creditReservationRepository = creditReservationRepository;
+        this.userCacheService = userCacheService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public UserBalance getBalance(User user) {
+        return userBalanceRepository.findById(user.getId()).orElseGet(() -> createBalance(user));
+    }
+
+    public List<UserOperationStats> getOperationStats(User user) {
+        List<UserOperationStats> operationStats = userOperationStatsRepository.findByIdUserId(user.getId());
+        return operationStats.isEmpty() ? createOperationStats(user) : operationStats;
+    }
+
+    /**
+     * Takes the cost off the balance and holds it as reserved, returning the reservation with the
+     * balance after it. Throws when the balance doesn't cover the cost.
+     */
+    public Reservation reserveCredits(User user, Integer operationCost) {
+        // Outside the reservation's transaction: creating missing rows takes a connection of its own,
+        // which must not be awaited while holding another one and the balance row lock
+        getBalance(user);
+        return transactionTemplate.execute(status -> {
+            if (userBalanceRepository.reserveCredits(user.getId(), operationCost, LocalDateTime.now()) == 0) {
+                throw new OperationException(INSUFFICIENT_CREDITS);
+            }
+            CreditReservation reservation = creditReservationRepository.save(
+                    new CreditReservation(null, user.getId(), operationCost, LocalDateTime.now()));
+            return new Reservation(reservation.getId(), user, operationCost, userBalanceRepository.findById(user.getId()).orElseThrow());
+        });
+    }
+
+    /**
+     * Writes the record of a reserved calculation; its credits were taken by reserveCredits. A
+     * reservation that expired and was reclaimed meanwhile is charged again like a direct charge.
+     */
+    @Transactional
+    public Record commitReservation(Record record, Reservation reservation) {
+        Long userId = reservation.user().getId();
+        Record saved = recordRepository.save(record);
+        if (creditReservationRepository.deleteReservation(reservation.id()) == 1) {
+            if (userBalanceRepository.commitReservation(userId, reservation.cost(), reservation.cost(), 1L, saved.getId(), LocalDateTime.now()) == 0) {
+                throw new IllegalStateException("No credits reserved for user " + userId);
+            }
+        } else if (userBalanceRepository.applyOperations(userId, reservation.cost(), 1L, saved.getId(), LocalDateTime.now()) == 0) {
+            throw new OperationException(INSUFFICIENT_CREDITS);
+        }
+        applyOperationStats(reservation.user(), saved.getOperation().getType(), 1L, reservation.cost(), saved.getDate(), saved.getDate());
+        return saved;
+    }
+
+    // Returns the credits of a reserved calculation that failed
+    @Transactional
+    public void releaseReservation(Reservation reservation) {
+        if (creditReservationRepository.deleteReservation(reservation.id()) == 0) {
+            logger.info("Reservation {} was already reclaimed", reservation.id());
+            return;
+        }
+        releaseCredits(reservation.user().getId(), reservation.cost());
+    }
+
+    // Gives back credits held by calculations that never committed or released, e.g. after a crash
+    @Scheduled(fixedDelayString = "${ledger.reservation.reclaim-interval:60000}")
+    public void reclaimExpiredReservations() {
+        List<CreditReservation> expired = creditReservationRepository.findExpired(
+                LocalDateTime.now().minus(reservationTtl), PageRequest.of(0, 500));
+        for (CreditReservation reservation : expired) {
+            Boolean reclaimed = transactionTemplate.execute(status -> {
+                if (creditReservationRepository.deleteReservation(reservation.getId()) == 0) {
+                    return false;
+                }
+                logger.warn("Reclaiming {} credits of expired reservation {} of user {}",
+                        reservation.getCost(), reservation.getId(), reservation.getUserId());
+                releaseCredits(reservation.getUserId(), reservation.getCost());
+                return true;
+            });
+            // The cached stats still show the balance without the reclaimed credits
+            if (Boolean.TRUE.equals(reclaimed)) {
+                userCacheService.evictStats(reservation.getUserId());
+            }
+        }
+    }
+
+    private void releaseCredits(Long userId, Integer cost) {
+        if (userBalanceRepository.releaseReservation(userId, cost, LocalDateTime.now()) == 0) {
+            logger.warn("No credits reserved for user {} to release", userId);
+        }
+    }
+
+    /**
+     * Writes the records of a batch whose total cost was reserved up front, inserting them with a
+     * single JDBC batch. The credits of operations that failed go back in the same balance update,
+     * and a reservation reclaimed meanwhile is charged for the records directly.
+     */
+    @Transactional
+    public void commitBatchReservation(List<Record> records, Reservation reservation) {
+        User user = reservation.user();
+        if (records.isEmpty()) {
+            releaseReservation(reservation);
+            return;
+        }
+        int chargedCost = records.stream().mapToInt(Record::getChargedCost).sum();
+        recordRepository.batchInsert(records);
+        Long lastRecordId = recordRepository.findLastActiveRecordId(user);
+        if (creditReservationRepository.deleteReservation(reservation.id()) == 1) {
+            if (userBalanceRepository.commitReservation(user.getId(), reservation.cost(), chargedCost, (long) records.size(),
+                    lastRecordId, LocalDateTime.now()) == 0) {
+                throw new IllegalStateException("No credits reserved for user " + user.getId());
+            }
+        } else if (userBalanceRepository.applyOperations(user.getId(), chargedCost, (long) records.size(), lastRecordId, LocalDateTime.now()) == 0) {
+            throw new OperationException("Insufficient credits to execute this batch");
+        }
+        records.stream()
+                .collect(Collectors.groupingBy(record -> record.getOperation().getType(),
+                        () -> new EnumMap<>(OperationTypeEnum.class), Collectors.toList()))
+                .forEach((operationType, typeRecords) -> applyOperationStats(user, operationType, typeRecords.size(),
+                        typeRecords.stream().mapToLong(Record::getChargedCost).sum(),
+                        typeRecords.stream().map(Record::getDate).min(Comparator.naturalOrder()).orElseThrow(),
+                        typeRecords.stream().map(Record::getDate).max(Comparator.naturalOrder()).orElseThrow()));
+    }
+
+    @Transactional
+    public void deleteRecord(Record record) {
+        User user = record.getUser();
+        OperationTypeEnum operationType = record.getOperation().getType();
+        getBalance(user);
+        ensureOperationStats(user, operationType);
+        record.setActive(false);
+        recordRepository.save(record);
+        userBalanceRepository.revertOperation(user.getId(), record.getChargedCost(), LocalDateTime.now());
+        if (userOperationStatsRepository.revertOperation(user.getId(), operationType, (long) record.getChargedCost()) == 0) {
+            throw new IllegalStateException("No " + operationType + " statistics for user " + user.getId());
+        }
+    }
+
+    /**
+     * Writes the PENDING record of a queued job whose credits are reserved. The record stays
+     * inactive, out of the balance and history, until the job commits or fails it.
+     */
+    @Transactional
+    public Record savePendingRecord(Record record) {
+        record.setStatus(RecordStatusEnum.PENDING);
+        record.setActive(Boolean.FALSE);
+        return recordRepository.save(record);
+    }
+
+    // Charges a finished job: its record becomes a regular completed record
+    @Transactional
+    public Record completeRecord(Long recordId, String result, Reservation reservation) {
+        Record record = recordRepository.findById(recordId).orElseThrow();
+        record.setOperationResponse(result);
+        record.setStatus(RecordStatusEnum.COMPLETED);
+        record.setActive(Boolean.TRUE);
+        return commitReservation(record, reservation);
+    }
+
+    // Gives back the credits of a job whose calculation could not be executed
+    @Transactional
+    public void failRecord(Long recordId, String error, Reservation reservation) {
+        recordRepository.findById(recordId).ifPresent(record -> {
+            record.setOperationResponse(error);
+            record.setStatus(RecordStatusEnum.FAILED);
+            recordRepository.save(record);
+        });
+        releaseReservation(reservation);
+    }
+
+    // Credits of live reservations stay reserved, so a leaked reserved amount is corrected here too;
+    // a concurrent charge fails the save with an optimistic locking error instead of being overwritten
+    @Transactional
+    public UserBalance rebuildBalance(User user) {
+        long totalCost = recordRepository.sumActiveCostByUser(user);
+        int reserved = (int) creditReservationRepository.sumCostByUserId(user.getId());
+        UserBalance userBalance = userBalanceRepository.findById(user.getId()).orElseGet(() -> {
+            UserBalance created = new UserBalance();
+            created.setUserId(user.getId());
+            return created;
+        });
+        userBalance.setReserved(reserved);
+        userBalance.setBalance(INITIAL_BALANCE - (int) totalCost - reserved);
+        userBalance.setTotalOperations(recordRepository.countByUserAndActive(user, true));
+        userBalance.setLastRecordId(recordRepository.findLastActiveRecordId(user));
+        userBalance.setUpdatedAt(LocalDateTime.now());
+        return userBalanceRepository.save(userBalance);
+    }
+
+    private void applyOperationStats(User user, OperationTypeEnum operationType, long count, long cost,
+                                     LocalDateTime first, LocalDateTime last) {
+        ensureOperationStats(user, operationType);
+        if (userOperationStatsRepository.applyOperations(user.getId(), operationType, count, cost, first, last) == 0) {
+            throw new IllegalStateException("No " + operationType + " statistics for user " + user.getId());
+        }
+    }
+
+    // Checked with a plain read before the update: on MySQL an update matching no row locks the gap,
+    // which would block the insert of the row from its own transaction
+    private void ensureOperationStats(User user, OperationTypeEnum operationType) {
+        if (!userOperationStatsRepository.existsById(new UserOperationStatsId(user.getId(), operationType))) {
+            createOperationStats(user);
+        }
+    }
+
+    // Built from the committed records only; the caller applies its own uncommitted records afterwards.
+    // The statistics rows are inserted in the same transaction, so whoever reads the balance row also
+    // finds them and the user's first commit never has to create them while holding the balance lock
+    private UserBalance createBalance(User user) {
+        try {
+            return newTransactionTemplate.execute(status -> {
+                UserBalance created = rebuildBalance(user);
+                insertOperationStats(user);
+                return created;
+            });
+        } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException ex) {
+            logger.info("Balance of user {} was created concurrently", user.getId());
+            return newTransactionTemplate.execute(status -> userBalanceRepository.findById(user.getId()).orElseThrow(() -> ex));
+        }
+    }
+
+    // Inserts a row for every operation type the user has none for yet, from the committed records,
+    // so later operations of the user only need increments. Existing rows are left to the reconciler
+    private List<UserOperationStats> createOperationStats(User user) {
+        try {
+            return newTransactionTemplate.execute(status -> insertOperationStats(user));
+        } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException ex) {
+            logger.info("Operation statistics of user {} were created concurrently", user.getId());
+            return newTransactionTemplate.execute(status -> userOperationStatsRepository.findByIdUserId(user.getId()));
+        }
+    }
+
+    private List<UserOperationStats> insertOperationStats(User user) {
+        List<UserOperationStats> operationStats = userOperationStatsRepository.findByIdUserId(user.getId());
+        EnumSet<OperationTypeEnum> existing = operationStats.stream()
+                .map(stats -> stats.getId().getOperationType())
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(OperationTypeEnum.class)));
+        Map<OperationTypeEnum, OperationTypeTotals> totals = new EnumMap<>(OperationTypeEnum.class);
+        recordRepository.sumByUserAndType(user.getId(), user.getId())
+                .forEach(typeTotals -> totals.put(typeTotals.getOperationType(), typeTotals));
+        List<UserOperationStats> created = new ArrayList<>();
+        for (OperationTypeEnum operationType : EnumSet.complementOf(existing)) {
+            UserOperationStats stats = new UserOperationStats(new UserOperationStatsId(user.getId(), operationType));
+            totals.getOrDefault(operationType, OperationTypeTotals.none(user.getId(), operationType)).applyTo(stats);
+            created.add(stats);
+        }
+        List<UserOperationStats> all = new ArrayList<>(operationStats);
+        all.addAll(userOperationStatsRepository.saveAll(created));
+        return all;
+    }
+
+    // Disabled unless ledger.rebuild.cron is set
+    @Scheduled(cron = "${ledger.rebuild.cron:-}")
+    public void rebuildAll() {
+        logger.info("Rebuilding user balances from record history");
+        userRepository.findAll().forEach(user -> {
+            Integer previous = userBalanceRepository.findById(user.getId()).map(UserBalance::getBalance).orElse(null);
+            try {
+                UserBalance rebuilt = rebuildBalance(user);
+                if (previous != null && !previous.equals(rebuilt.getBalance())) {
+                    logger.warn("Balance drift fixed for user {}: {} -> {}", user.getId(), previous, rebuilt.getBalance());
+                }
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                logger.info("Balance of user {} changed during rebuild, skipped until the next run", user.getId());
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.br.calculator.services;
+
+import com.br.calculator.config.OperationCatalogProperties;
+import com.br.calculator.entities.Operation;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.repositories.OperationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reference catalog with the current {@link Operation} row of each {@link OperationTypeEnum}. The
+ * rows are seeded at startup with the configured costs and kept in memory, so calculations only
+ * insert their record. A changed cost is seeded as a new row, leaving the rows of past records as
+ * they were.
+ */
+@Service
+@EnableConfigurationProperties(OperationCatalogProperties.class)
+public class OperationCatalog implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationCatalog.class);
+
+    private final OperationRepository operationRepository;
+    private final OperationCatalogProperties properties;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Map<OperationTypeEnum, Operation> operations;
+
+    public OperationCatalog(OperationRepository operationRepository, OperationCatalogProperties properties) {
+        this.operationRepository = operationRepository;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+    }
+
+    public Operation getOperation(OperationTypeEnum operationType) {
+        return getOperations().get(operationType);
+    }
+
+    public Integer getCost(OperationTypeEnum operationType) {
+        return getOperation(operationType).getCost();
+    }
+
+    private Map<OperationTypeEnum, Operation> getOperations() {
+        Map<OperationTypeEnum, Operation> current = operations;
+        return current != null ? current : load();
+    }
+
+    // A lock rather than synchronized, which would pin a virtual thread across the repository calls
+    private Map<OperationTypeEnum, Operation> load() {
+        loadLock.lock();
+        try {
+            return operations != null ? operations : seed();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Map<OperationTypeEnum, Operation> seed() {
+        Map<OperationTypeEnum, Operation> catalog = new EnumMap<>(OperationTypeEnum.class);
+        for (OperationTypeEnum operationType : OperationTypeEnum.values()) {
+            Integer cost = Objects.requireNonNull(properties.getCosts().get(operationType),
+                    "No cost configured for operation " + operationType);
+            // Records reference their operation row, and legacy records without their own cost are
+            // charged its cost, so a row is never repriced: a new price gets a row of its own
+            Operation operation = operationRepository.findFirstByTypeOrderByIdDesc(operationType)
+                    .filter(current -> cost.equals(current.getCost()))
+                    .orElseGet(() -> {
+                        logger.info("Operation {} registered with cost {}", operationType, cost);
+                        return operationRepository.save(new Operation(null, operationType, cost));
+                    });
+            catalog.put(operationType, operation);
+        }
+        operations = catalog;
+        return catalog;
+    }
+}
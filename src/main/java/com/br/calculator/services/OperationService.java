@@ -1,188 +1,395 @@
 package com.br.calculator.services;
 
+import com.br.calculator.cache.UserCacheKeyGenerator;
+import com.br.calculator.config.ExecutorConfig;
+import com.br.calculator.dto.BalanceResponse;
+import com.br.calculator.dto.BatchOperationItemResponse;
+import com.br.calculator.dto.BatchOperationResponse;
+import com.br.calculator.dto.OperationJobResponse;
 import com.br.calculator.dto.OperationRequest;
 import com.br.calculator.dto.OperationResponse;
+import com.br.calculator.dto.OperationTypeStatsResponse;
+import com.br.calculator.dto.RecordDeletedResponse;
 import com.br.calculator.dto.RecordResponse;
+import com.br.calculator.dto.RecordSliceResponse;
 import com.br.calculator.dto.UserStatsResponse;
 import com.br.calculator.entities.Operation;
 import com.br.calculator.entities.Record;
 import com.br.calculator.entities.User;
+import com.br.calculator.entities.UserBalance;
+import com.br.calculator.entities.UserOperationStats;
+import com.br.calculator.engine.CalculationCoalescer;
+import com.br.calculator.engine.CalculationEngineRouter;
+import com.br.calculator.events.UserEvent;
+import com.br.calculator.events.UserEventBus;
 import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.enums.UserEventTypeEnum;
+import com.br.calculator.enums.RecordStatusEnum;
 import com.br.calculator.exceptions.OperationException;
-import com.br.calculator.repositories.OperationRepository;
+import com.br.calculator.exceptions.TooManyRequestsException;
+import com.br.calculator.metrics.CalculationMetrics;
 import com.br.calculator.repositories.RecordRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
-import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.lambda.LambdaClient;
-import software.amazon.awssdk.services.lambda.model.InvokeRequest;
-import software.amazon.awssdk.services.lambda.model.InvokeResponse;
-import software.amazon.awssdk.services.lambda.model.ResourceNotFoundException;
-import software.amazon.awssdk.services.lambda.model.ServiceException;
-
-import java.nio.charset.StandardCharsets;
+
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class OperationService {
 
     private static final Logger logger = LoggerFactory.getLogger(OperationService.class);
+    private static final int MAX_SLICE_SIZE = 100;
 
+    private final UserCacheService userCacheService;
+    private final OperationCatalog operationCatalog;
+    private final RecordRepository recordRepository;
+    private final LedgerService ledgerService;
+    private final CalculationEngineRouter calculationEngineRouter;
+    private final Executor calculationExecutor;
+    private final CalculationMetrics calculationMetrics;
+    private final ExpressionService expressionService;
+    private final CalculationCoalescer calculationCoalescer;
+    private final UserEventBus userEventBus;
 
-    @Value("${aws.lambda.function}")
-    private String LAMBDA_FUNCTION;
+    @Value("${calculator.batch.max-size:100}")
+    private int batchMaxSize = 100;
 
-    private final CacheManager cacheManager;
-    private final OperationRepository operationRepository;
-    private final RecordRepository recordRepository;
-    private final LambdaClient lambdaClient;
-
-    public OperationService(OperationRepository operationRepository, RecordRepository recordRepository, CacheManager cacheManager) {
-        this.lambdaClient = LambdaClient.builder()
-                .region(Region.US_EAST_2)
-                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
-                .build();
-        this.operationRepository = operationRepository;
+    public OperationService(OperationCatalog operationCatalog, RecordRepository recordRepository,
+                            LedgerService ledgerService, CalculationEngineRouter calculationEngineRouter,
+                            UserCacheService userCacheService,
+                            @Qualifier(ExecutorConfig.CALCULATION_EXECUTOR) Executor calculationExecutor,
+                            CalculationMetrics calculationMetrics, ExpressionService expressionService,
+                            CalculationCoalescer calculationCoalescer, UserEventBus userEventBus) {
+        this.operationCatalog = operationCatalog;
         this.recordRepository = recordRepository;
-        this.cacheManager = cacheManager;
+        this.ledgerService = ledgerService;
+        this.calculationEngineRouter = calculationEngineRouter;
+        this.userCacheService = userCacheService;
+        this.calculationExecutor = calculationExecutor;
+        this.calculationMetrics = calculationMetrics;
+        this.expressionService = expressionService;
+        this.calculationCoalescer = calculationCoalescer;
+        this.userEventBus = userEventBus;
     }
 
-    @Cacheable("userOperations")
+    @Cacheable(value = UserCacheService.USER_OPERATIONS, keyGenerator = UserCacheKeyGenerator.NAME)
     public Page<RecordResponse> getUserRecords(User user, Pageable pageable) {
-        var recordsPage = recordRepository.findAllByUserAndActive(user, true, pageable);
-        logger.info("Data fetched. Mapping response data");
-        return recordsPage.map(this::getRecordResponse);
+        var recordsPage = recordRepository.findRecordResponses(user.getId(), pageable);
+        logger.info("Data fetched");
+        return recordsPage;
+    }
+
+    public RecordSliceResponse getUserRecordsSlice(User user, String cursor, int size, Sort.Direction direction) {
+        if (size < 1 || size > MAX_SLICE_SIZE) {
+            throw new OperationException("Size must be between 1 and " + MAX_SLICE_SIZE);
+        }
+        RecordCursor position = cursor != null ? RecordCursor.decode(cursor) : RecordCursor.first(direction);
+        // Fetch one extra row to know whether another slice follows
+        Pageable limit = PageRequest.of(0, size + 1, Sort.by(position.direction(), "id"));
+        List<RecordResponse> records = position.direction().isAscending()
+                ? recordRepository.findRecordResponsesAfter(user.getId(), position.lastId(), limit)
+                : recordRepository.findRecordResponsesBefore(user.getId(), position.lastId(), limit);
+        boolean hasNext = records.size() > size;
+        List<RecordResponse> content = hasNext ? records.subList(0, size) : records;
+        String nextCursor = hasNext
+                ? new RecordCursor(content.get(content.size() - 1).getId(), position.direction()).encode()
+                : null;
+        return new RecordSliceResponse(content, nextCursor, hasNext);
     }
 
     public int getNewAmount(List<Record> records) {
         int totalCost = 0;
         if (!records.isEmpty()) {
-            totalCost = records.stream().map(Record::getOperation).mapToInt(Operation::getCost).sum();
+            totalCost = records.stream().mapToInt(Record::getChargedCost).sum();
         }
-        return 200 - totalCost;
+        return LedgerService.INITIAL_BALANCE - totalCost;
     }
 
-    @Cacheable("userStats")
+    // Served from the materialized balance and per-type rows: two indexed reads whatever the history size
+    @Cacheable(value = UserCacheService.USER_STATS, keyGenerator = UserCacheKeyGenerator.NAME)
     public UserStatsResponse getUserStats(User user) {
         logger.info("Fetching user stats for user: " + user.getUsername());
-        List<Record> records = recordRepository.findAllByUserAndActive(user, true).orElse(new ArrayList<>());
-        UserStatsResponse userStatsResponse = new UserStatsResponse();
-        userStatsResponse.setTotalOperations((long) records.size());
-        userStatsResponse.setCurrentBalance(getNewAmount(records));
-        return userStatsResponse;
+        return loadUserStats(user);
     }
 
-    private RecordResponse getRecordResponse(Record record) {
-        var response = new RecordResponse();
-        response.setId(record.getId());
-        response.setOperationId(record.getId());
-        response.setDate(record.getDate());
-        response.setOperationCost(record.getOperation().getCost());
-        response.setOperationType(record.getOperation().getType().name());
-        response.setUserBalance(record.getAmount());
-        return response;
+    private UserStatsResponse loadUserStats(User user) {
+        UserBalance userBalance = ledgerService.getBalance(user);
+        Map<OperationTypeEnum, OperationTypeStatsResponse> operations = new EnumMap<>(OperationTypeEnum.class);
+        long totalSpent = 0;
+        LocalDateTime firstOperationAt = null;
+        LocalDateTime lastOperationAt = null;
+        for (UserOperationStats stats : ledgerService.getOperationStats(user)) {
+            operations.put(stats.getId().getOperationType(), new OperationTypeStatsResponse(stats.getOperationCount(),
+                    stats.getSpent(), stats.getFirstOperationAt(), stats.getLastOperationAt()));
+            totalSpent += stats.getSpent();
+            if (stats.getFirstOperationAt() != null && (firstOperationAt == null || stats.getFirstOperationAt().isBefore(firstOperationAt))) {
+                firstOperationAt = stats.getFirstOperationAt();
+            }
+            if (stats.getLastOperationAt() != null && (lastOperationAt == null || stats.getLastOperationAt().isAfter(lastOperationAt))) {
+                lastOperationAt = stats.getLastOperationAt();
+            }
+        }
+        return new UserStatsResponse(userBalance.getBalance(), userBalance.getTotalOperations(), totalSpent,
+                firstOperationAt, lastOperationAt, operations);
     }
 
     public OperationResponse executeOperation(OperationRequest operationRequest, User user) {
         var operationType = OperationTypeEnum.fromString(operationRequest.getOperationType());
-        Integer operationCost = getOperationCost(operationType);
-        UserStatsResponse userStats = getUserStats(user);
-        validateRequestExecutioon(operationRequest, userStats, operationCost);
-        logger.info("Invoking lambda function");
-        var result = invokeLambda(operationType, operationRequest.getValue1(), operationRequest.getValue2());
-        logger.info("Saving operation execution");
-        Operation operation = saveOperation(operationCost, operationType);
-        List<Record> records = recordRepository.findAllByUserAndActive(user, true).orElse(new ArrayList<>());
-        records.sort(Comparator.comparingLong(Record::getId).reversed());
-        int newAmount = getNewAmount(records) - operationCost;
-        Record record = getRecord(user, operation, result, newAmount);
-        recordRepository.save(record);
-        logger.info("Clearing existing application cache data");
-        cacheManager.getCacheNames().forEach(cacheName -> cacheManager.getCache(cacheName).clear());
-        return new OperationResponse(result, newAmount);
-    }
-
-    private static Record getRecord(User user, Operation operation, String result, int newAmount) {
+        return calculationMetrics.time(operationType, () -> executeOperation(operationType, operationRequest, user));
+    }
+
+    // Credits are reserved before the engine call and committed with the record afterwards, so
+    // concurrent calculations can't overdraw the balance and a failed call is never charged
+    private OperationResponse executeOperation(OperationTypeEnum operationType, OperationRequest operationRequest, User user) {
+        Integer operationCost = getOperationCost(operationType, operationRequest);
+        calculationMetrics.timeStage(CalculationMetrics.VALIDATION, operationType, () -> validateOperationValues(operationRequest));
+        Reservation reservation = calculationMetrics.timeStage(CalculationMetrics.RESERVE, operationType,
+                () -> ledgerService.reserveCredits(user, operationCost));
+        UserBalance reserved = reservation.balance();
+        int newAmount = reserved.getBalance();
+        String result;
+        // Anything failing before the commit gives the credits back; the commit itself rolls back as a whole
+        try {
+            logger.info("Invoking calculation engine");
+            result = calculationMetrics.timeStage(CalculationMetrics.ENGINE, operationType, () -> calculationCoalescer.calculate(user.getId(), operationType,
+                    operationRequest.getValue1(), operationRequest.getValue2(), () -> calculate(operationType, operationRequest)));
+            logger.info("Saving operation execution");
+            Operation operation = operationCatalog.getOperation(operationType);
+            Record record = getRecord(user, operation, operationCost, result, newAmount);
+            calculationMetrics.timeStage(CalculationMetrics.RECORD_SAVE, operationType, () -> ledgerService.commitReservation(record, reservation));
+        } catch (RuntimeException ex) {
+            releaseReservation(reservation, ex);
+            throw ex;
+        }
+        logger.info("Refreshing cached user data");
+        calculationMetrics.timeStage(CalculationMetrics.CACHE_UPDATE, operationType, () -> refreshUserCache(user));
+        OperationResponse operationResponse = new OperationResponse(result, newAmount);
+        userEventBus.publish(user.getId(), new UserEvent(UserEventTypeEnum.OPERATION, operationResponse));
+        publishBalance(user, newAmount, reserved.getTotalOperations() + 1);
+        return operationResponse;
+    }
+
+    /**
+     * Reserves the operation's credits and queues its calculation on the calculation executor. The
+     * job's record is written as PENDING and its id is the job id; the credits are committed with
+     * the record once the calculation completes and released if it fails.
+     */
+    public OperationJobResponse submitOperation(OperationRequest operationRequest, User user) {
+        var operationType = OperationTypeEnum.fromString(operationRequest.getOperationType());
+        Integer operationCost = getOperationCost(operationType, operationRequest);
+        validateOperationValues(operationRequest);
+        Reservation reservation = ledgerService.reserveCredits(user, operationCost);
+        UserBalance reserved = reservation.balance();
+        int newAmount = reserved.getBalance();
+        Long jobId;
+        try {
+            Record record = getRecord(user, operationCatalog.getOperation(operationType), operationCost, null, newAmount);
+            jobId = ledgerService.savePendingRecord(record).getId();
+        } catch (RuntimeException ex) {
+            releaseReservation(reservation, ex);
+            throw ex;
+        }
+        refreshUserCache(user);
+        try {
+            calculationExecutor.execute(() -> runJob(jobId, user, reservation, operationType, operationRequest));
+        } catch (RejectedExecutionException ex) {
+            logger.warn("Calculation queue full, rejecting job {}", jobId);
+            ledgerService.failRecord(jobId, "Error: Calculation queue is full.", reservation);
+            refreshUserCache(user);
+            throw new TooManyRequestsException("Too many pending calculations, try again later", 1);
+        }
+        logger.info("Operation job {} submitted", jobId);
+        publishBalance(user, newAmount, reserved.getTotalOperations());
+        return new OperationJobResponse(jobId, RecordStatusEnum.PENDING.name(), null, newAmount);
+    }
+
+    public OperationJobResponse getJob(Record record) {
+        return new OperationJobResponse(record.getId(), record.getStatus().name(), record.getOperationResponse(), record.getAmount());
+    }
+
+    private void runJob(Long jobId, User user, Reservation reservation, OperationTypeEnum operationType, OperationRequest operationRequest) {
+        String result;
+        try {
+            result = calculate(operationType, operationRequest);
+            ledgerService.completeRecord(jobId, result, reservation);
+            logger.info("Operation job {} completed", jobId);
+        } catch (RuntimeException ex) {
+            logger.error("Operation job " + jobId + " failed", ex);
+            ledgerService.failRecord(jobId, "Error: " + ex.getMessage(), reservation);
+            refreshUserCache(user);
+            // The failed job's record never becomes active and its credits go back to the balance
+            userEventBus.publish(user.getId(), new UserEvent(UserEventTypeEnum.RECORD_DELETED, new RecordDeletedResponse(jobId)));
+            UserBalance userBalance = ledgerService.getBalance(user);
+            publishBalance(user, userBalance.getBalance(), userBalance.getTotalOperations());
+            return;
+        }
+        refreshUserCache(user);
+        // The balance was already published when the job was submitted, only the operation count moved
+        userEventBus.publish(user.getId(), new UserEvent(UserEventTypeEnum.OPERATION,
+                new OperationJobResponse(jobId, RecordStatusEnum.COMPLETED.name(), result, reservation.balance().getBalance())));
+        publishBalance(user, reservation.balance().getBalance(), reservation.balance().getTotalOperations() + 1);
+    }
+
+    // A failed release is left to the expired reservation reclaim and must not hide the original error
+    private void releaseReservation(Reservation reservation, RuntimeException cause) {
+        try {
+            ledgerService.releaseReservation(reservation);
+        } catch (RuntimeException ex) {
+            logger.error("Could not release reservation " + reservation.id(), ex);
+            cause.addSuppressed(ex);
+        }
+    }
+
+    // Written through once the ledger write committed, so the stats read right after it are a cache hit
+    private void refreshUserCache(User user) {
+        userCacheService.refreshUser(user.getId(), loadUserStats(user));
+    }
+
+    private void publishBalance(User user, int balance, long totalOperations) {
+        userEventBus.publish(user.getId(), new UserEvent(UserEventTypeEnum.BALANCE, new BalanceResponse(balance, totalOperations)));
+    }
+
+    private static Record getRecord(User user, Operation operation, int cost, String result, int newAmount) {
         Record record = new Record();
         record.setOperation(operation);
+        record.setCost(cost);
         record.setOperationResponse(result);
         record.setActive(Boolean.TRUE);
+        record.setStatus(RecordStatusEnum.COMPLETED);
         record.setUser(user);
         record.setAmount(newAmount);
         return record;
     }
 
-    private static void validateRequestExecutioon(OperationRequest operationRequest, UserStatsResponse userStats, Integer operationCost) {
-        logger.info("Validating request execution");
-        if (userStats.getCurrentBalance() < operationCost) {
-            throw new OperationException("Insufficient credits to execute this operation");
+    public BatchOperationResponse executeBatch(List<OperationRequest> operationRequests, User user) {
+        if (operationRequests == null || operationRequests.isEmpty()) {
+            throw new OperationException("Batch must contain at least one operation");
         }
-
-        if (operationRequest.getOperationType().equals("DIVISION") && operationRequest.getValue2() == 0) {
-            throw new OperationException("Is not possible execute division by zero");
+        if (operationRequests.size() > batchMaxSize) {
+            throw new OperationException("Batch cannot contain more than " + batchMaxSize + " operations");
         }
+        int size = operationRequests.size();
+        BatchOperationItemResponse[] responses = new BatchOperationItemResponse[size];
+        OperationTypeEnum[] operationTypes = new OperationTypeEnum[size];
+        int[] costs = new int[size];
+        int totalCost = 0;
+        for (int i = 0; i < size; i++) {
+            try {
+                operationTypes[i] = OperationTypeEnum.fromString(operationRequests.get(i).getOperationType());
+                validateOperationValues(operationRequests.get(i));
+                costs[i] = getOperationCost(operationTypes[i], operationRequests.get(i));
+                totalCost += costs[i];
+            } catch (OperationException | IllegalArgumentException ex) {
+                responses[i] = new BatchOperationItemResponse(i, null, null, ex.getMessage());
+            }
+        }
+        // The whole batch is reserved up front; what failed is released when the records are committed
+        Reservation reservation;
+        try {
+            reservation = ledgerService.reserveCredits(user, totalCost);
+        } catch (OperationException ex) {
+            throw new OperationException("Insufficient credits to execute this batch");
+        }
+        UserBalance reserved = reservation.balance();
+        int amount = reserved.getBalance() + totalCost;
+        List<Record> records = new ArrayList<>(size);
+        try {
+            logger.info("Invoking calculation engine for {} batch operations", size);
+            List<CompletableFuture<String>> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                results.add(responses[i] == null ? evaluate(operationTypes[i], operationRequests.get(i)) : null);
+            }
 
-        if (operationRequest.getOperationType().equals("SQUARE_ROOT") && operationRequest.getValue1() < 0) {
-            throw new OperationException("Operation error: Is not possible get the square root of a negative value");
+            for (int i = 0; i < size; i++) {
+                if (responses[i] != null) {
+                    continue;
+                }
+                try {
+                    String result = results.get(i).join();
+                    Operation operation = operationCatalog.getOperation(operationTypes[i]);
+                    amount -= costs[i];
+                    records.add(getRecord(user, operation, costs[i], result, amount));
+                    responses[i] = new BatchOperationItemResponse(i, result, amount, null);
+                } catch (CompletionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    logger.error("Error evaluating batch operation " + i, cause);
+                    responses[i] = new BatchOperationItemResponse(i, null, null, cause.getMessage());
+                }
+            }
+
+            logger.info("Saving {} batch operation executions", records.size());
+            ledgerService.commitBatchReservation(records, reservation);
+        } catch (RuntimeException ex) {
+            releaseReservation(reservation, ex);
+            throw ex;
+        }
+        refreshUserCache(user);
+        for (BatchOperationItemResponse response : responses) {
+            if (response.getError() == null) {
+                userEventBus.publish(user.getId(), new UserEvent(UserEventTypeEnum.OPERATION,
+                        new OperationResponse(response.getOperationResult(), response.getAmount())));
+            }
         }
+        publishBalance(user, amount, reserved.getTotalOperations() + records.size());
+        return new BatchOperationResponse(Arrays.asList(responses), amount);
     }
 
-    private Operation saveOperation(Integer operationCost, OperationTypeEnum operationType) {
-        Operation operation = new Operation();
-        operation.setCost(operationCost);
-        operation.setType(operationType);
-        operation = operationRepository.save(operation);
-        return operation;
+    // Every call is started before any result is awaited, so remote calls of a batch overlap
+    private CompletableFuture<String> evaluate(OperationTypeEnum operationType, OperationRequest operationRequest) {
+        if (operationType == OperationTypeEnum.EXPRESSION) {
+            try {
+                return CompletableFuture.completedFuture(calculate(operationType, operationRequest));
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+        return calculationEngineRouter.calculateAsync(operationType, operationRequest.getValue1(), operationRequest.getValue2());
     }
 
-    private Integer getOperationCost(OperationTypeEnum operationTypeEnum) {
-        return (switch (operationTypeEnum) {
-            case ADDITION -> 1;
-            case SUBTRACTION -> 2;
-            case MULTIPLICATION -> 3;
-            case DIVISION -> 4;
-            case SQUARE_ROOT -> 5;
-            case RANDOM_STRING -> 6;
-        });
+    // Expressions are evaluated in-process from their compiled form, other operations by their engine
+    private String calculate(OperationTypeEnum operationType, OperationRequest operationRequest) {
+        if (operationType == OperationTypeEnum.EXPRESSION) {
+            return expressionService.evaluate(operationRequest.getExpression(), operationRequest.getVariables());
+        }
+        return invokeCalculationEngine(operationType, operationRequest.getValue1(), operationRequest.getValue2());
     }
 
-    public String invokeLambda(OperationTypeEnum operationType, Double value1, Double value2) {
-        String payload = String.format("{ \"operationType\": \"%s\", \"value1\": %s, \"value2\": %s }", operationType.name(), value1, value2);
-        SdkBytes payloadBytes = SdkBytes.fromString(payload, StandardCharsets.UTF_8);
-        InvokeRequest invokeRequest = InvokeRequest.builder()
-                .functionName(getLambdaFunction())
-                .payload(payloadBytes)
-                .build();
-        try {
-            InvokeResponse invokeResponse = lambdaClient.invoke(invokeRequest);
-            return invokeResponse.payload().asUtf8String();
-        } catch (ServiceException | ResourceNotFoundException e) {
-            logger.debug("Error executing lambda function: " + e.getMessage());
-            return "Error: Could not invoke Lambda function.";
+    private Integer getOperationCost(OperationTypeEnum operationType, OperationRequest operationRequest) {
+        Integer unitCost = operationCatalog.getCost(operationType);
+        if (operationType == OperationTypeEnum.EXPRESSION) {
+            return expressionService.getCost(operationRequest.getExpression(), unitCost);
         }
+        return unitCost;
     }
 
-    // Only for test purposes
-    public void setLambdaFunction(String lambdaFunction) {
-        LAMBDA_FUNCTION = lambdaFunction;
-    }
+    private static void validateOperationValues(OperationRequest operationRequest) {
+        if (operationRequest.getOperationType().equals("DIVISION") && operationRequest.getValue2() == 0) {
+            throw new OperationException("Is not possible execute division by zero");
+        }
 
-    private String getLambdaFunction() {
-        if (LAMBDA_FUNCTION != null) {
-            return LAMBDA_FUNCTION;
+        if (operationRequest.getOperationType().equals("SQUARE_ROOT") && operationRequest.getValue1() < 0) {
+            throw new OperationException("Operation error: Is not possible get the square root of a negative value");
         }
-        LAMBDA_FUNCTION = System.getenv("AWS_LAMBDA_FUNCTION");
-        return LAMBDA_FUNCTION;
     }
-}
 
+    public String invokeCalculationEngine(OperationTypeEnum operationType, Double value1, Double value2) {
+        return calculationEngineRouter.calculate(operationType, value1, value2);
+    }
+}
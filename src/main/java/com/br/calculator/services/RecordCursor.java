@@ -0,0 +1,37 @@
+package com.br.calculator.services;
+
+import com.br.calculator.exceptions.OperationException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation token for keyset pagination: the id of the last record returned and the sort
+ * direction, encoded so clients treat it as opaque.
+ */
+public record RecordCursor(long lastId, Sort.Direction direction) {
+
+    private static final String VERSION = "v1";
+
+    public static RecordCursor first(Sort.Direction direction) {
+        return new RecordCursor(direction.isAscending() ? 0L : Long.MAX_VALUE, direction);
+    }
+
+    public static RecordCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new OperationException("Invalid cursor");
+            }
+            return new RecordCursor(Long.parseLong(parts[1]), Sort.Direction.fromString(parts[2]));
+        } catch (IllegalArgumentException ex) {
+            throw new OperationException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String value = VERSION + ":" + lastId + ":" + direction.name();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
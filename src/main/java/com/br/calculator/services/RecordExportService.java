@@ -0,0 +1,125 @@
+package com.br.calculator.services;
+
+import com.br.calculator.dto.RecordResponse;
+import com.br.calculator.entities.User;
+import com.br.calculator.enums.ExportFormatEnum;
+import com.br.calculator.exceptions.OperationException;
+import com.br.calculator.repositories.RecordRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the full operation history of a user from a database cursor straight into the
+ * response, one row at a time, so memory use doesn't grow with the size of the history.
+ */
+@Service
+public class RecordExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordExportService.class);
+    private static final String CSV_HEADER = "id,operationType,operationCost,userBalance,date\n";
+    // Open bounds of the date range, kept within the MySQL DATETIME range
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final RecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    // Flushing after every row would push one network write per record
+    private final ObjectWriter recordWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    public RecordExportService(RecordRepository recordRepository, ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.recordWriter = objectMapper.writerFor(RecordResponse.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Validates the request and returns the body that writes the export. The body runs after the
+     * controller returns, on the MVC async executor, inside its own read-only transaction.
+     *
+     * @param from inclusive lower bound of the record date, or null for no bound
+     * @param to   exclusive upper bound of the record date, or null for no bound
+     */
+    public StreamingResponseBody export(User user, ExportFormatEnum format, LocalDateTime from, LocalDateTime to, boolean gzip) {
+        LocalDateTime lower = from != null ? from : MIN_DATE;
+        LocalDateTime upper = to != null ? to : MAX_DATE;
+        if (!lower.isBefore(upper)) {
+            throw new OperationException("Export start date must be before its end date");
+        }
+        Long userId = user.getId();
+        return output -> {
+            OutputStream target = gzip ? new GZIPOutputStream(output, 8192) : output;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<RecordResponse> records = recordRepository.streamRecordResponses(userId, lower, upper)) {
+                        long written = format == ExportFormatEnum.CSV ? writeCsv(records.iterator(), target) : writeNdjson(records.iterator(), target);
+                        logger.info("Exported {} records of user {}", written, userId);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            // Finish the gzip trailer without closing the response stream, which belongs to the container
+            if (target instanceof GZIPOutputStream gzipOutput) {
+                gzipOutput.finish();
+            }
+        };
+    }
+
+    private long writeNdjson(Iterator<RecordResponse> records, OutputStream output) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+            while (records.hasNext()) {
+                recordWriter.writeValue(generator, records.next());
+                generator.writeRaw('\n');
+                written++;
+            }
+        }
+        return written;
+    }
+
+    // Every column is a number, an enum name or an ISO date, so no value needs quoting
+    private static long writeCsv(Iterator<RecordResponse> records, OutputStream output) throws IOException {
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        while (records.hasNext()) {
+            RecordResponse record = records.next();
+            writer.append(String.valueOf(record.getId())).append(',')
+                    .append(record.getOperationType()).append(',')
+                    .append(String.valueOf(record.getOperationCost())).append(',')
+                    .append(String.valueOf(record.getUserBalance())).append(',')
+                    .append(String.valueOf(record.getDate())).append('\n');
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+}
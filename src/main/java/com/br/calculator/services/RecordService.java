@@ -1,10 +1,15 @@
 package com.br.calculator.services;
 
+import com.br.calculator.dto.BalanceResponse;
+import com.br.calculator.dto.RecordDeletedResponse;
 import com.br.calculator.entities.Record;
 import com.br.calculator.entities.User;
+import com.br.calculator.entities.UserBalance;
+import com.br.calculator.enums.UserEventTypeEnum;
+import com.br.calculator.events.UserEvent;
+import com.br.calculator.events.UserEventBus;
 import com.br.calculator.exceptions.UserException;
 import com.br.calculator.repositories.RecordRepository;
-import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 import java.util.Objects;
@@ -14,11 +19,16 @@ import java.util.Optional;
 public class RecordService {
 
     private final RecordRepository recordRepository;
-    private final CacheManager cacheManager;
+    private final LedgerService ledgerService;
+    private final UserCacheService userCacheService;
+    private final UserEventBus userEventBus;
 
-    public RecordService(RecordRepository recordRepository, CacheManager cacheManager) {
+    public RecordService(RecordRepository recordRepository, LedgerService ledgerService, UserCacheService userCacheService,
+                         UserEventBus userEventBus) {
         this.recordRepository = recordRepository;
-        this.cacheManager = cacheManager;
+        this.ledgerService = ledgerService;
+        this.userCacheService = userCacheService;
+        this.userEventBus = userEventBus;
     }
 
     public Optional<Record> findById(Long id, User user) {
@@ -29,10 +39,23 @@ public class RecordService {
         return record;
     }
 
+    // Includes pending and failed records, which are not listed as active history
+    public Optional<Record> findJob(Long id, User user) {
+        Optional<Record> record = recordRepository.findById(id);
+        if (record.isPresent() && !Objects.equals(record.get().getUser().getId(), user.getId())) {
+            throw new UserException("Action not allowed");
+        }
+        return record;
+    }
+
     public void deleteRecord(Record record) {
-        record.setActive(false);
-        recordRepository.save(record);
-        cacheManager.getCacheNames().forEach(cacheName -> cacheManager.getCache(cacheName).clear());
+        ledgerService.deleteRecord(record);
+        Long userId = record.getUser().getId();
+        userCacheService.evictUser(userId);
+        userEventBus.publish(userId, new UserEvent(UserEventTypeEnum.RECORD_DELETED, new RecordDeletedResponse(record.getId())));
+        UserBalance userBalance = ledgerService.getBalance(record.getUser());
+        userEventBus.publish(userId, new UserEvent(UserEventTypeEnum.BALANCE,
+                new BalanceResponse(userBalance.getBalance(), userBalance.getTotalOperations())));
     }
 
 }
@@ -0,0 +1,11 @@
+package com.br.calculator.services;
+
+import com.br.calculator.entities.User;
+import com.br.calculator.entities.UserBalance;
+
+/**
+ * Credits reserved for a calculation, with the balance right after the reservation. Passed back
+ * to {@link LedgerService} to commit or release it.
+ */
+public record Reservation(Long id, User user, Integer cost, UserBalance balance) {
+}
@@ -0,0 +1,56 @@
+package com.br.calculator.services;
+
+import com.br.calculator.cache.InstrumentedCache;
+import com.br.calculator.cache.InstrumentedCacheManager;
+import com.br.calculator.cache.UserCacheGenerations;
+import com.br.calculator.cache.UserCacheKey;
+import com.br.calculator.dto.UserStatsResponse;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+
+/**
+ * Keeps the per-user caches consistent. Entries are keyed by user id, so a write by one user
+ * only evicts that user's entries instead of clearing the caches for everyone. A user's pages are
+ * dropped by advancing their generation, so a write costs the same however large the cache is.
+ * A calculation writes the user's fresh stats through instead of evicting them, so the next stats
+ * read after it is still a hit.
+ */
+@Service
+public class UserCacheService {
+
+    public static final String USER_OPERATIONS = "userOperations";
+    public static final String USER_STATS = "userStats";
+
+    private final InstrumentedCacheManager cacheManager;
+    private final UserCacheGenerations userCacheGenerations;
+
+    public UserCacheService(InstrumentedCacheManager cacheManager, UserCacheGenerations userCacheGenerations) {
+        this.cacheManager = cacheManager;
+        this.userCacheGenerations = userCacheGenerations;
+    }
+
+    public void evictUser(Long userId) {
+        getCache(USER_STATS).evict(UserCacheKey.of(userId));
+        evictUserRecords(userId);
+    }
+
+    // Replaces the cached stats with ones read after the user's write committed and drops their pages
+    public void refreshUser(Long userId, UserStatsResponse stats) {
+        getCache(USER_STATS).put(UserCacheKey.of(userId), stats);
+        evictUserRecords(userId);
+    }
+
+    // For writes that move the balance but leave the records as they are, e.g. a reclaimed reservation
+    public void evictStats(Long userId) {
+        getCache(USER_STATS).evict(UserCacheKey.of(userId));
+    }
+
+    private void evictUserRecords(Long userId) {
+        userCacheGenerations.advance(userId);
+    }
+
+    private InstrumentedCache getCache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name));
+    }
+}
@@ -2,26 +2,39 @@ package com.br.calculator.services;
 
 import static com.br.calculator.enums.UserStatusEnum.ACTIVE;
 import com.br.calculator.entities.User;
+import com.br.calculator.enums.UserStatusEnum;
 import com.br.calculator.exceptions.UserException;
 import com.br.calculator.repositories.UserRepository;
+import com.br.calculator.security.AuthenticatedUser;
+import com.br.calculator.security.jwt.JwtPrincipalCache;
+import com.br.calculator.security.jwt.TokenRevocationList;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final String INVALID_CREDENTIALS = "Invalid credentials";
+    // Allowed characters: alphanumeric and underscores only
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_]+$");
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationList tokenRevocationList;
+    private final JwtPrincipalCache jwtPrincipalCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       TokenRevocationList tokenRevocationList, JwtPrincipalCache jwtPrincipalCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationList = tokenRevocationList;
+        this.jwtPrincipalCache = jwtPrincipalCache;
     }
 
     @Override
@@ -29,11 +42,16 @@ public class UserService implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getUsername())
-                .password(user.getPassword())
-                .authorities("USER") // Add roles or authorities here
-                .build();
+        return new AuthenticatedUser(user);
+    }
+
+    // Called by the authentication provider after a successful login when the stored hash uses an older strength
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((AuthenticatedUser) userDetails).getUser();
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return new AuthenticatedUser(user);
     }
 
     public User findUserByUserName(String userName) {
@@ -51,7 +69,21 @@ public class UserService implements UserDetailsService {
         userRepository.save(user);
     }
 
-    private void validateUsername(String username) {
+    // Stateless tokens carry the status in their claims, so every token issued before the change is revoked
+    public User updateStatus(Long userId, UserStatusEnum status) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserException("User not found"));
+        if (user.getStatus() == status) {
+            return user;
+        }
+        user.setStatus(status);
+        userRepository.save(user);
+        tokenRevocationList.revokeUser(userId);
+        jwtPrincipalCache.evictUser(userId);
+        return user;
+    }
+
+    void validateUsername(String username) {
         // Check if username is empty
         if (username == null || username.trim().isEmpty()) {
             throw new UserException("Username cannot be empty.");
@@ -63,8 +95,7 @@ public class UserService implements UserDetailsService {
         }
 
         // Check for allowed characters (e.g., alphanumeric and underscores only)
-        String regex = "^[a-zA-Z0-9_]+$";
-        if (!username.matches(regex)) {
+        if (!USERNAME_PATTERN.matcher(username).matches()) {
             throw new UserException("Username can only contain letters, numbers, and underscores.");
         }
 
@@ -0,0 +1,96 @@
+package com.br.calculator.services;
+
+import com.br.calculator.dto.OperationTypeTotals;
+import com.br.calculator.entities.UserOperationStats;
+import com.br.calculator.entities.UserOperationStatsId;
+import com.br.calculator.repositories.RecordRepository;
+import com.br.calculator.repositories.UserOperationStatsRepository;
+import com.br.calculator.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies the materialized {@link UserOperationStats} against the record table, walking the
+ * users in chunks so each pass is one grouped query over a bounded range of user ids.
+ * <p>
+ * The stored rows are read before the record totals, so a row that took an operation after it was
+ * read fails its optimistic version check instead of being overwritten with stale totals.
+ */
+@Service
+public class UserStatsReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsReconciler.class);
+
+    private final UserRepository userRepository;
+    private final RecordRepository recordRepository;
+    private final UserOperationStatsRepository userOperationStatsRepository;
+    private final int chunkSize;
+
+    public UserStatsReconciler(UserRepository userRepository, RecordRepository recordRepository,
+                               UserOperationStatsRepository userOperationStatsRepository,
+                               @Value("${calculator.stats.reconcile.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.recordRepository = recordRepository;
+        this.userOperationStatsRepository = userOperationStatsRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    // Disabled unless calculator.stats.reconcile.cron is set
+    @Scheduled(cron = "${calculator.stats.reconcile.cron:-}")
+    public void reconcileAll() {
+        logger.info("Reconciling user statistics with record history");
+        int fixed = 0;
+        List<Long> userIds = userRepository.findIdsAfter(0L, PageRequest.of(0, chunkSize));
+        while (!userIds.isEmpty()) {
+            fixed += reconcile(userIds.get(0), userIds.get(userIds.size() - 1));
+            userIds = userRepository.findIdsAfter(userIds.get(userIds.size() - 1), PageRequest.of(0, chunkSize));
+        }
+        logger.info("User statistics reconciled, {} rows fixed", fixed);
+    }
+
+    /**
+     * Reconciles the stored statistics of the users with ids in the given range and returns the
+     * number of rows fixed. Users without stored rows are skipped; they are built on first read.
+     */
+    int reconcile(Long fromUserId, Long toUserId) {
+        Map<UserOperationStatsId, UserOperationStats> stored = userOperationStatsRepository.findByIdUserIdBetween(fromUserId, toUserId)
+                .stream()
+                .collect(Collectors.toMap(UserOperationStats::getId, Function.identity()));
+        if (stored.isEmpty()) {
+            return 0;
+        }
+        Map<UserOperationStatsId, OperationTypeTotals> totals = recordRepository.sumByUserAndType(fromUserId, toUserId)
+                .stream()
+                .collect(Collectors.toMap(typeTotals -> new UserOperationStatsId(typeTotals.getUserId(), typeTotals.getOperationType()),
+                        Function.identity()));
+        int fixed = 0;
+        for (UserOperationStats stats : stored.values()) {
+            UserOperationStatsId id = stats.getId();
+            OperationTypeTotals expected = totals.getOrDefault(id, OperationTypeTotals.none(id.getUserId(), id.getOperationType()));
+            if (expected.matches(stats)) {
+                continue;
+            }
+            logger.warn("Statistics drift fixed for user {} and {}: {} operations, {} spent -> {} operations, {} spent",
+                    id.getUserId(), id.getOperationType(), stats.getOperationCount(), stats.getSpent(),
+                    expected.getOperationCount(), expected.getSpent());
+            expected.applyTo(stats);
+            try {
+                userOperationStatsRepository.save(stats);
+                fixed++;
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                logger.info("Statistics of user {} changed during reconcile, skipped until the next run", id.getUserId());
+            }
+        }
+        return fixed;
+    }
+}
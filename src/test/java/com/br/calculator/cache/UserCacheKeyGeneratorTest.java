@@ -0,0 +1,77 @@
+package com.br.calculator.cache;
+
+import com.br.calculator.entities.User;
+import com.br.calculator.enums.UserStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheKeyGeneratorTest {
+
+    private final UserCacheGenerations userCacheGenerations = new UserCacheGenerations();
+    private final UserCacheKeyGenerator keyGenerator = new UserCacheKeyGenerator(userCacheGenerations);
+
+    private Method method;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        method = Object.class.getMethod("toString");
+        user = new User(7L, "test_user", "encodedPassword", UserStatusEnum.ACTIVE);
+    }
+
+    // Test: Key stays the same when mutable entity fields change
+    @Test
+    void testKeyStableAcrossEntityChanges() {
+        Object before = keyGenerator.generate(this, method, user, PageRequest.of(0, 10));
+        user.setPassword("rehashedPassword");
+        user.setStatus(UserStatusEnum.INACTIVE);
+        Object after = keyGenerator.generate(this, method, user, PageRequest.of(0, 10));
+
+        assertEquals(before, after);
+        assertEquals(before.hashCode(), after.hashCode());
+    }
+
+    // Test: Page coordinates and sort are part of the key
+    @Test
+    void testKeyDistinguishesPages() {
+        Object firstPage = keyGenerator.generate(this, method, user, PageRequest.of(0, 10));
+        Object secondPage = keyGenerator.generate(this, method, user, PageRequest.of(1, 10));
+        Object sorted = keyGenerator.generate(this, method, user, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertNotEquals(firstPage, secondPage);
+        assertNotEquals(firstPage, sorted);
+    }
+
+    // Test: Advancing the user's generation changes their page keys but not other users' keys
+    @Test
+    void testGenerationAdvance() {
+        User other = new User(8L, "other_user", "encodedPassword", UserStatusEnum.ACTIVE);
+        Object before = keyGenerator.generate(this, method, user, PageRequest.of(0, 10));
+        Object otherBefore = keyGenerator.generate(this, method, other, PageRequest.of(0, 10));
+
+        userCacheGenerations.advance(7L);
+
+        assertNotEquals(before, keyGenerator.generate(this, method, user, PageRequest.of(0, 10)));
+        assertEquals(otherBefore, keyGenerator.generate(this, method, other, PageRequest.of(0, 10)));
+        assertEquals(UserCacheKey.of(7L), keyGenerator.generate(this, method, user));
+    }
+
+    // Test: Keys without a page only carry the user id
+    @Test
+    void testUserOnlyKey() {
+        assertEquals(UserCacheKey.of(7L), keyGenerator.generate(this, method, user));
+    }
+
+    // Test: Unsaved users can't be cached
+    @Test
+    void testMissingUserId() {
+        user.setId(null);
+        assertThrows(IllegalArgumentException.class, () -> keyGenerator.generate(this, method, user));
+    }
+}
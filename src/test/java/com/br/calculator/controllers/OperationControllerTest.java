@@ -1,18 +1,23 @@
 package com.br.calculator.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import com.br.calculator.dto.OperationRequest;
 import com.br.calculator.dto.OperationResponse;
 import com.br.calculator.dto.RecordResponse;
 import com.br.calculator.dto.UserStatsResponse;
 import com.br.calculator.entities.User;
+import com.br.calculator.enums.ExportFormatEnum;
 import com.br.calculator.exceptions.OperationException;
 import com.br.calculator.exceptions.UserException;
 import com.br.calculator.services.OperationService;
+import com.br.calculator.services.RecordExportService;
 import com.br.calculator.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,13 +27,16 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collections;
 
@@ -40,6 +48,9 @@ class OperationControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private RecordExportService recordExportService;
+
     @Mock
     private Authentication authentication;
 
@@ -111,6 +122,32 @@ class OperationControllerTest {
         verify(operationService, times(1)).getUserStats(user);
     }
 
+    @Test
+    void testGetOperationsSliceInvalidCursor() {
+        mockAuthentication();
+
+        when(operationService.getUserRecordsSlice(user, "tampered", 10, Sort.Direction.DESC))
+                .thenThrow(new OperationException("Invalid cursor"));
+
+        ResponseEntity<?> response = operationController.getOperationsSlice("tampered", 10, Sort.Direction.DESC);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid cursor", response.getBody());
+    }
+
+    @Test
+    void testGetOperationsSliceThrowsUserException() {
+        mockAuthentication();
+
+        when(operationService.getUserRecordsSlice(user, null, 10, Sort.Direction.DESC))
+                .thenThrow(new UserException("User not found"));
+
+        ResponseEntity<?> response = operationController.getOperationsSlice(null, 10, Sort.Direction.DESC);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("User not found", response.getBody());
+    }
+
     @Test
     void testCalculateSuccess() {
         mockAuthentication();
@@ -153,4 +190,41 @@ class OperationControllerTest {
         assertEquals("User not found", response.getBody());
         verify(operationService, times(1)).executeOperation(operationRequest, user);
     }
+
+    @Test
+    void testExportOperationsGzip() {
+        mockAuthentication();
+
+        StreamingResponseBody body = output -> { };
+        when(recordExportService.export(user, ExportFormatEnum.CSV, null, null, true)).thenReturn(body);
+
+        ResponseEntity<StreamingResponseBody> response = operationController.exportOperations("csv", null, null, "gzip, deflate");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(body, response.getBody());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("text/csv", response.getHeaders().getContentType().toString());
+    }
+
+    // Test: gzip refused with q=0, directly or through the wildcard, is not used
+    @Test
+    void testAcceptsGzipQualityValues() {
+        assertTrue(OperationController.acceptsGzip("gzip;q=0.5, deflate"));
+        assertTrue(OperationController.acceptsGzip("br, *"));
+        assertFalse(OperationController.acceptsGzip("gzip;q=0, deflate"));
+        assertFalse(OperationController.acceptsGzip("GZIP; q=0.0, *"));
+        assertFalse(OperationController.acceptsGzip("deflate, *;q=0"));
+        assertFalse(OperationController.acceptsGzip("identity"));
+        assertFalse(OperationController.acceptsGzip(null));
+    }
+
+    @Test
+    void testExportOperationsUnknownFormat() {
+        mockAuthentication();
+
+        ResponseEntity<StreamingResponseBody> response = operationController.exportOperations("xml", null, null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(recordExportService);
+    }
 }
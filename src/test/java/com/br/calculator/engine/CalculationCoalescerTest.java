@@ -0,0 +1,110 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.exceptions.OperationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CalculationCoalescer coalescer = new CalculationCoalescer(meterRegistry);
+
+    // Test: An identical request made while the first is in flight gets its result without a second call
+    @Test
+    void testCoalescesInFlightCalculation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                coalescer.calculate(1L, OperationTypeEnum.ADDITION, 2.0, 3.0, () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return "5.0";
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() ->
+                coalescer.calculate(1L, OperationTypeEnum.ADDITION, 2.0, 3.0, () -> {
+                    calls.incrementAndGet();
+                    return "5.0";
+                }));
+        while (meterRegistry.counter("calculator.operation.coalesced").count() == 0 && !second.isDone()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("5.0", first.get(5, TimeUnit.SECONDS));
+        assertEquals("5.0", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    // Test: Different users and non-deterministic operations are never joined
+    @Test
+    void testDoesNotCoalesceAcrossUsersOrRandom() {
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.calculate(1L, OperationTypeEnum.ADDITION, 2.0, 3.0, () -> "" + calls.incrementAndGet());
+        coalescer.calculate(2L, OperationTypeEnum.ADDITION, 2.0, 3.0, () -> "" + calls.incrementAndGet());
+        coalescer.calculate(1L, OperationTypeEnum.RANDOM_STRING, null, null, () -> "" + calls.incrementAndGet());
+
+        assertEquals(3, calls.get());
+        assertEquals(0.0, meterRegistry.counter("calculator.operation.coalesced").count());
+    }
+
+    // Test: A failed calculation is not kept, the next request calculates again
+    @Test
+    void testFailureIsNotRetained() {
+        assertThrows(OperationException.class, () -> coalescer.calculate(1L, OperationTypeEnum.DIVISION, 1.0, 0.0, () -> {
+            throw new OperationException("Engine error");
+        }));
+
+        assertEquals("ok", coalescer.calculate(1L, OperationTypeEnum.DIVISION, 1.0, 0.0, () -> "ok"));
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    // Test: A leader failing with an Error releases its followers with the same Error
+    @Test
+    void testLeaderErrorReleasesFollowers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                coalescer.calculate(1L, OperationTypeEnum.MULTIPLICATION, 2.0, 3.0, () -> {
+                    started.countDown();
+                    await(release);
+                    throw new StackOverflowError("Engine error");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() ->
+                coalescer.calculate(1L, OperationTypeEnum.MULTIPLICATION, 2.0, 3.0, () -> "6.0"));
+        while (meterRegistry.counter("calculator.operation.coalesced").count() == 0 && !second.isDone()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, leaderError.getCause());
+        ExecutionException followerError = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, followerError.getCause());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
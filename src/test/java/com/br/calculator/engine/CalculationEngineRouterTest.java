@@ -0,0 +1,93 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.config.CalculationEngineProperties;
+import com.br.calculator.exceptions.EngineUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.br.calculator.enums.OperationTypeEnum.ADDITION;
+import static com.br.calculator.enums.OperationTypeEnum.RANDOM_STRING;
+import static com.br.calculator.enums.OperationTypeEnum.SQUARE_ROOT;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CalculationEngineRouterTest {
+
+    private CalculationEngine engine;
+
+    private CalculationEngineProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        engine = mock(CalculationEngine.class);
+        when(engine.getName()).thenReturn("test");
+        when(engine.calculate(any(), any(), any())).thenAnswer(invocation -> "\"Result: " + invocation.getArgument(1) + "\"");
+        properties = new CalculationEngineProperties();
+        properties.setDefaultEngine("test");
+    }
+
+    // Test: Repeated deterministic inputs are served from the memo
+    @Test
+    void testMemoizesDeterministicOperations() {
+        CalculationEngineRouter router = new CalculationEngineRouter(List.of(engine), properties);
+
+        assertEquals("\"Result: 5.0\"", router.calculate(ADDITION, 5.0, 3.0));
+        assertEquals("\"Result: 5.0\"", router.calculate(ADDITION, 5.0, 3.0));
+        router.calculate(ADDITION, 5.0, 4.0);
+        router.calculate(SQUARE_ROOT, 5.0, null);
+        router.calculate(SQUARE_ROOT, 5.0, null);
+
+        verify(engine, times(1)).calculate(ADDITION, 5.0, 3.0);
+        verify(engine, times(1)).calculate(ADDITION, 5.0, 4.0);
+        verify(engine, times(1)).calculate(SQUARE_ROOT, 5.0, null);
+        assertEquals(2, router.getResultCache().orElseThrow().stats().hitCount());
+    }
+
+    // Test: Zero and negative zero are different keys
+    @Test
+    void testSignedZeroKeys() {
+        CalculationEngineRouter router = new CalculationEngineRouter(List.of(engine), properties);
+
+        router.calculate(ADDITION, 0.0, 1.0);
+        router.calculate(ADDITION, -0.0, 1.0);
+
+        verify(engine, times(2)).calculate(eq(ADDITION), any(), eq(1.0));
+    }
+
+    // Test: RANDOM_STRING always reaches the engine
+    @Test
+    void testRandomStringBypassesMemo() {
+        CalculationEngineRouter router = new CalculationEngineRouter(List.of(engine), properties);
+
+        router.calculate(RANDOM_STRING, null, null);
+        router.calculate(RANDOM_STRING, null, null);
+
+        verify(engine, times(2)).calculate(RANDOM_STRING, null, null);
+    }
+
+    // Test: Failed calculations are not memoized
+    @Test
+    void testFailuresAreNotMemoized() {
+        when(engine.calculate(ADDITION, 1.0, 2.0)).thenThrow(new EngineUnavailableException("unavailable")).thenReturn("\"Result: 3.0\"");
+        CalculationEngineRouter router = new CalculationEngineRouter(List.of(engine), properties);
+
+        assertThrows(EngineUnavailableException.class, () -> router.calculate(ADDITION, 1.0, 2.0));
+        assertEquals("\"Result: 3.0\"", router.calculate(ADDITION, 1.0, 2.0));
+    }
+
+    // Test: The memo can be switched off
+    @Test
+    void testMemoDisabled() {
+        properties.getMemo().setEnabled(false);
+        CalculationEngineRouter router = new CalculationEngineRouter(List.of(engine), properties);
+
+        router.calculate(ADDITION, 5.0, 3.0);
+        router.calculate(ADDITION, 5.0, 3.0);
+
+        verify(engine, times(2)).calculate(ADDITION, 5.0, 3.0);
+        assertTrue(router.getResultCache().isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package com.br.calculator.engine;
+
+import com.br.calculator.config.RandomStringProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomStringPoolTest {
+
+    private RandomStringProperties properties;
+
+    private RandomStringPool pool;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RandomStringProperties();
+        properties.setLength(16);
+        properties.setAlphabet("ab");
+        properties.setBufferSize(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.stop();
+        }
+    }
+
+    // Test: Strings use the configured length and alphabet
+    @Test
+    void testLengthAndAlphabet() {
+        pool = new RandomStringPool(properties);
+        String value = pool.next();
+        assertEquals(16, value.length());
+        assertTrue(value.matches("[ab]+"));
+    }
+
+    // Test: An empty buffer generates inline instead of blocking
+    @Test
+    void testEmptyBufferGeneratesInline() {
+        pool = new RandomStringPool(properties);
+        assertEquals(0, pool.getAvailable());
+        assertNotNull(pool.next());
+        assertEquals(1, pool.getInlineGenerationCount());
+    }
+
+    // Test: The background filler keeps the buffer full and requests are served from it
+    @Test
+    void testFillerServesFromBuffer() throws InterruptedException {
+        pool = new RandomStringPool(properties);
+        pool.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (pool.getAvailable() < 8 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(8, pool.getAvailable());
+        pool.next();
+        assertEquals(0, pool.getInlineGenerationCount());
+    }
+}
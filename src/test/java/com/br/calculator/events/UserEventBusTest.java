@@ -0,0 +1,95 @@
+package com.br.calculator.events;
+
+import com.br.calculator.dto.BalanceResponse;
+import com.br.calculator.enums.UserEventTypeEnum;
+import com.br.calculator.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserEventBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Collects drain tasks instead of running them, as if every client were too slow to keep up
+    private final List<Runnable> pendingDrains = new ArrayList<>();
+
+    private UserEventBus newBus(int bufferSize, int maxConnectionsPerUser) {
+        return new UserEventBus(pendingDrains::add, meterRegistry, bufferSize, maxConnectionsPerUser, Duration.ofMinutes(1));
+    }
+
+    private static UserEvent balance(int amount) {
+        return new UserEvent(UserEventTypeEnum.BALANCE, new BalanceResponse(amount, 1L));
+    }
+
+    // Test: A user can't open more streams than allowed, other users are not affected
+    @Test
+    void testMaxConnectionsPerUser() {
+        UserEventBus bus = newBus(8, 2);
+
+        bus.subscribe(1L);
+        bus.subscribe(1L);
+
+        assertThrows(TooManyRequestsException.class, () -> bus.subscribe(1L));
+        assertNotNull(bus.subscribe(2L));
+        assertEquals(3, bus.getConnectionCount());
+    }
+
+    // Test: Only one drain per connection is scheduled while events pile up, and none for other users
+    @Test
+    void testPublishSchedulesOneDrainPerConnection() {
+        UserEventBus bus = newBus(8, 5);
+        bus.subscribe(1L);
+
+        bus.publish(1L, balance(199));
+        bus.publish(1L, balance(198));
+        bus.publish(2L, balance(100));
+
+        assertEquals(1, pendingDrains.size());
+    }
+
+    // Test: A stream that falls behind gets a resync instead of growing its buffer
+    @Test
+    void testOverflowIsCounted() {
+        UserEventBus bus = newBus(2, 5);
+        bus.subscribe(1L);
+
+        for (int i = 0; i < 3; i++) {
+            bus.publish(1L, balance(200 - i));
+        }
+
+        assertEquals(1.0, meterRegistry.counter("calculator.events.overflow").count());
+    }
+
+    // Test: Overflowing replaces the buffered events with a single resync
+    @Test
+    void testConnectionOverflowKeepsOnlyResync() {
+        UserEventConnection connection = new UserEventConnection(1L, new SseEmitter(), 2);
+
+        assertTrue(connection.offer(balance(199)));
+        assertTrue(connection.offer(balance(198)));
+        assertFalse(connection.offer(balance(197)));
+
+        assertSame(UserEvent.RESYNC, connection.poll());
+        assertNull(connection.poll());
+    }
+
+    // Test: Heartbeats are skipped while other events are waiting
+    @Test
+    void testHeartbeatOnlyWhenIdle() {
+        UserEventConnection connection = new UserEventConnection(1L, new SseEmitter(), 4);
+
+        connection.offerHeartbeat();
+        connection.offer(balance(199));
+        connection.offerHeartbeat();
+
+        assertSame(UserEvent.HEARTBEAT, connection.poll());
+        assertEquals(UserEventTypeEnum.BALANCE, connection.poll().type());
+        assertNull(connection.poll());
+    }
+}
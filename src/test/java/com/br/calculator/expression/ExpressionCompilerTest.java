@@ -0,0 +1,47 @@
+package com.br.calculator.expression;
+
+import com.br.calculator.exceptions.OperationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionCompilerTest {
+
+    // Test: Operator precedence, associativity and unary minus
+    @Test
+    void testPrecedence() {
+        assertEquals(7.0, evaluate("1 + 2 * 3"));
+        assertEquals(9.0, evaluate("(1 + 2) * 3"));
+        assertEquals(0.0, evaluate("3 - 2 - 1"));
+        assertEquals(512.0, evaluate("2 ^ 3 ^ 2"));
+        assertEquals(-4.0, evaluate("-2 ^ 2"));
+        assertEquals(1000.5, evaluate("1e3 + .5"));
+    }
+
+    // Test: Variables get one slot each in order of first use
+    @Test
+    void testVariables() {
+        CompiledExpression expression = ExpressionCompiler.compile("sqrt(x * x + y * y) + x");
+        assertEquals(List.of("x", "y"), expression.getVariables());
+        assertEquals(8.0, expression.evaluate(new double[]{3, 4}));
+        assertEquals(5, expression.getOperationCount());
+    }
+
+    // Test: Syntax errors report the position
+    @Test
+    void testInvalidExpressions() {
+        assertEquals("Invalid expression: Unexpected end of expression at position 2",
+                assertThrows(OperationException.class, () -> ExpressionCompiler.compile("1+")).getMessage());
+        assertEquals("Invalid expression: Expected ')' at position 2",
+                assertThrows(OperationException.class, () -> ExpressionCompiler.compile("(1")).getMessage());
+        assertThrows(OperationException.class, () -> ExpressionCompiler.compile("1 2"));
+        assertThrows(OperationException.class, () -> ExpressionCompiler.compile(" "));
+        assertThrows(OperationException.class, () -> ExpressionCompiler.compile("1+".repeat(ExpressionCompiler.MAX_LENGTH)));
+    }
+
+    private static double evaluate(String source) {
+        return ExpressionCompiler.compile(source).evaluate(new double[0]);
+    }
+}
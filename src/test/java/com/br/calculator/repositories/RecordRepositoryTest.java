@@ -0,0 +1,171 @@
+package com.br.calculator.repositories;
+
+import com.br.calculator.dto.RecordResponse;
+import com.br.calculator.entities.Operation;
+import com.br.calculator.entities.Record;
+import com.br.calculator.entities.User;
+import com.br.calculator.enums.OperationTypeEnum;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.br.calculator.enums.UserStatusEnum.ACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:calculator;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class RecordRepositoryTest {
+
+    private static final int RECORDS = 60;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(new User(null, "test_user", "encodedPassword", ACTIVE));
+        Operation addition = entityManager.persist(new Operation(null, OperationTypeEnum.ADDITION, 1));
+        Operation division = entityManager.persist(new Operation(null, OperationTypeEnum.DIVISION, 4));
+        for (int i = 0; i < RECORDS; i++) {
+            Record record = new Record();
+            record.setUser(user);
+            record.setOperation(i % 2 == 0 ? addition : division);
+            record.setAmount(200 - i);
+            record.setActive(true);
+            entityManager.persist(record);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Test: A page costs the same statements no matter how many rows it holds
+    @Test
+    void testRecordPageStatementCountIsConstant() {
+        long smallPage = countStatements(PageRequest.of(0, 5));
+        long largePage = countStatements(PageRequest.of(0, 50));
+
+        assertEquals(smallPage, largePage);
+        assertEquals(2, largePage); // page select + count
+    }
+
+    // Test: Projected rows carry the operation data
+    @Test
+    void testRecordPageProjection() {
+        Page<RecordResponse> page = recordRepository.findRecordResponses(user.getId(), PageRequest.of(0, 2, Sort.by("id")));
+
+        assertEquals(RECORDS, page.getTotalElements());
+        assertEquals("ADDITION", page.getContent().get(0).getOperationType());
+        assertEquals(1, page.getContent().get(0).getOperationCost());
+        assertEquals("DIVISION", page.getContent().get(1).getOperationType());
+        assertEquals(4, page.getContent().get(1).getOperationCost());
+    }
+
+    // Test: The export cursor returns active records in id order, within the date range
+    @Test
+    void testStreamRecordResponses() {
+        LocalDateTime now = LocalDateTime.now();
+        try (Stream<RecordResponse> records = recordRepository.streamRecordResponses(user.getId(), now.minusDays(1), now.plusDays(1))) {
+            List<Long> ids = records.map(RecordResponse::getId).toList();
+            assertEquals(RECORDS, ids.size());
+            assertEquals(ids.stream().sorted().toList(), ids);
+        }
+        try (Stream<RecordResponse> records = recordRepository.streamRecordResponses(user.getId(), now.plusDays(1), now.plusDays(2))) {
+            assertEquals(0, records.count());
+        }
+    }
+
+    // Test: Seeking forward returns the records after the cursor id in ascending order
+    @Test
+    void testFindRecordResponsesAfter() {
+        List<Long> allIds = recordRepository.findRecordResponsesAfter(user.getId(), 0L, PageRequest.of(0, RECORDS, Sort.by("id")))
+                .stream().map(RecordResponse::getId).toList();
+        assertEquals(RECORDS, allIds.size());
+
+        List<Long> ids = recordRepository.findRecordResponsesAfter(user.getId(), allIds.get(9), PageRequest.of(0, 5, Sort.by("id")))
+                .stream().map(RecordResponse::getId).toList();
+
+        assertEquals(allIds.subList(10, 15), ids);
+    }
+
+    // Test: Seeking backward returns the records before the cursor id in descending order
+    @Test
+    void testFindRecordResponsesBefore() {
+        List<Long> allIds = recordRepository.findRecordResponsesBefore(user.getId(), Long.MAX_VALUE,
+                PageRequest.of(0, RECORDS, Sort.by(Sort.Direction.DESC, "id"))).stream().map(RecordResponse::getId).toList();
+        assertEquals(RECORDS, allIds.size());
+        assertEquals(allIds.stream().sorted(Comparator.reverseOrder()).toList(), allIds);
+
+        List<Long> ids = recordRepository.findRecordResponsesBefore(user.getId(), allIds.get(9),
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "id"))).stream().map(RecordResponse::getId).toList();
+
+        assertEquals(allIds.subList(10, 15), ids);
+    }
+
+    // Test: Seeking skips soft deleted records and records of other users
+    @Test
+    void testSeekSkipsInactiveAndOtherUsers() {
+        List<Record> records = recordRepository.findAll(Sort.by("id"));
+        Record deleted = records.get(1);
+        deleted.setActive(false);
+        recordRepository.save(deleted);
+        User other = entityManager.persist(new User(null, "other_user", "encodedPassword", ACTIVE));
+        Record foreign = new Record();
+        foreign.setUser(other);
+        foreign.setOperation(records.get(0).getOperation());
+        foreign.setAmount(199);
+        foreign.setActive(true);
+        entityManager.persist(foreign);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> ids = recordRepository.findRecordResponsesAfter(user.getId(), records.get(0).getId(),
+                PageRequest.of(0, RECORDS + 1, Sort.by("id"))).stream().map(RecordResponse::getId).toList();
+
+        assertEquals(RECORDS - 2, ids.size());
+        assertFalse(ids.contains(deleted.getId()));
+        assertFalse(ids.contains(foreign.getId()));
+        assertEquals(RECORDS - 1, recordRepository.findRecordResponsesBefore(user.getId(), Long.MAX_VALUE,
+                PageRequest.of(0, RECORDS + 1, Sort.by(Sort.Direction.DESC, "id"))).size());
+    }
+
+    private long countStatements(PageRequest pageRequest) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+        Page<RecordResponse> page = recordRepository.findRecordResponses(user.getId(), pageRequest);
+        assertEquals(pageRequest.getPageSize(), page.getNumberOfElements());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,83 @@
+package com.br.calculator.security;
+
+import com.br.calculator.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private ThreadPoolTaskExecutor executor;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    // Test: Hashing and verification run on the executor and are timed
+    @Test
+    void testEncodeAndMatches() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), executor, meterRegistry);
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("calculator.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("calculator.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    // Test: A full queue is rejected immediately with 429 instead of waiting
+    @Test
+    void testRejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+        PasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), executor, meterRegistry);
+
+        try {
+            TooManyRequestsException exception = assertThrows(TooManyRequestsException.class, () -> encoder.encode("password123"));
+            assertEquals(1, exception.getRetryAfterSeconds());
+            assertEquals(1.0, meterRegistry.get("calculator.password.queue").gauge().value());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // Test: Stored hashes with a lower strength are flagged for rehash
+    @Test
+    void testUpgradeEncoding() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+        PasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), executor, meterRegistry);
+
+        assertTrue(encoder.upgradeEncoding(weakHash));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.br.calculator.security;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedBodyHttpServletRequestTest {
+
+    // Test: The cached body is served again and a read listener is told it is all available
+    @Test
+    void testReadListener() throws IOException {
+        byte[] body = "{\"operationType\":\"ADDITION\"}".getBytes(StandardCharsets.UTF_8);
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(new MockHttpServletRequest(), body);
+        ServletInputStream input = request.getInputStream();
+        StringBuilder events = new StringBuilder();
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.append("available:").append(new String(input.readAllBytes(), StandardCharsets.UTF_8)).append(';');
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.append("done");
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                events.append("error");
+            }
+        });
+
+        assertEquals("available:{\"operationType\":\"ADDITION\"};done", events.toString());
+        assertTrue(input.isFinished());
+    }
+}
@@ -0,0 +1,48 @@
+package com.br.calculator.security;
+
+import com.br.calculator.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    // Test: Attempts over the per-user limit are rejected, other users are not affected
+    @Test
+    void testPerUserLimit() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 100, Duration.ofMinutes(1));
+
+        limiter.acquire("test_user", "10.0.0.1");
+        limiter.acquire("test_user", "10.0.0.1");
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> limiter.acquire("test_user", "10.0.0.1"));
+
+        assertEquals(60, exception.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> limiter.acquire("other_user", "10.0.0.1"));
+    }
+
+    // Test: Attempts over the per-address limit are rejected across usernames
+    @Test
+    void testPerAddressLimit() {
+        LoginRateLimiter limiter = new LoginRateLimiter(100, 2, Duration.ofMinutes(1));
+
+        limiter.acquire("user_a", "10.0.0.1");
+        limiter.acquire("user_b", "10.0.0.1");
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("user_c", "10.0.0.1"));
+        assertDoesNotThrow(() -> limiter.acquire("user_c", "10.0.0.2"));
+    }
+
+    // Test: A successful login clears the user's counter
+    @Test
+    void testResetAfterSuccess() {
+        LoginRateLimiter limiter = new LoginRateLimiter(1, 100, Duration.ofMinutes(1));
+
+        limiter.acquire("test_user", "10.0.0.1");
+        limiter.reset("test_user");
+
+        assertDoesNotThrow(() -> limiter.acquire("test_user", "10.0.0.1"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.br.calculator.security;
+
+import com.br.calculator.config.RateLimitProperties;
+import com.br.calculator.enums.OperationTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationRateLimiterTest {
+
+    private static OperationRateLimiter limiter(int burst) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPeriod(Duration.ofMinutes(1));
+        properties.setDefaultLimit(60);
+        properties.setBurst(burst);
+        properties.getLimits().put(OperationTypeEnum.RANDOM_STRING, 1);
+        return new OperationRateLimiter(properties);
+    }
+
+    // Test: Requests beyond the burst are rejected with the time until the next token
+    @Test
+    void testBurstThenReject() {
+        OperationRateLimiter limiter = limiter(3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION).isZero());
+        }
+        Duration retryAfter = limiter.tryAcquire(1L, OperationTypeEnum.ADDITION);
+
+        assertFalse(retryAfter.isZero());
+        assertTrue(retryAfter.compareTo(Duration.ofSeconds(1)) <= 0);
+    }
+
+    // Test: Buckets are separate per user and per operation type
+    @Test
+    void testBucketsPerUserAndType() {
+        OperationRateLimiter limiter = limiter(1);
+
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION).isZero());
+        assertFalse(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION).isZero());
+
+        assertTrue(limiter.tryAcquire(2L, OperationTypeEnum.ADDITION).isZero());
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.DIVISION).isZero());
+        assertTrue(limiter.tryAcquire(1L, null).isZero());
+    }
+
+    // Test: A type-specific limit overrides the default one
+    @Test
+    void testLimitPerType() {
+        OperationRateLimiter limiter = limiter(1);
+
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.RANDOM_STRING).isZero());
+        Duration retryAfter = limiter.tryAcquire(1L, OperationTypeEnum.RANDOM_STRING);
+
+        assertTrue(retryAfter.compareTo(Duration.ofSeconds(50)) > 0);
+    }
+
+    // Test: Even a full bucket rejects a batch larger than the burst, without taking anything from it
+    @Test
+    void testBatchLargerThanBurst() {
+        OperationRateLimiter limiter = limiter(3);
+
+        assertEquals(3, limiter.getMaxPermits());
+        assertFalse(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION, 10).isZero());
+        assertFalse(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION, 4).isZero());
+
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION, 3).isZero());
+        assertFalse(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION).isZero());
+    }
+
+    // Test: A full bucket of a low per-type limit admits no more than the burst in one batch
+    @Test
+    void testBatchLargerThanBurstWithLowLimit() {
+        OperationRateLimiter limiter = limiter(3);
+
+        assertFalse(limiter.tryAcquire(1L, OperationTypeEnum.RANDOM_STRING, 100).isZero());
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.RANDOM_STRING, 3).isZero());
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.RANDOM_STRING).compareTo(Duration.ofSeconds(50)) > 0);
+    }
+
+    // Test: A batch that does not fit in a partly used bucket is rejected without taking anything
+    @Test
+    void testBatchRejectedWhenBucketPartlyUsed() {
+        OperationRateLimiter limiter = limiter(3);
+
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION).isZero());
+        assertFalse(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION, 3).isZero());
+
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION, 2).isZero());
+        assertFalse(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION).isZero());
+    }
+
+    // Test: Released requests can be taken again
+    @Test
+    void testRelease() {
+        OperationRateLimiter limiter = limiter(2);
+
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION, 2).isZero());
+        assertFalse(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION).isZero());
+
+        limiter.release(1L, OperationTypeEnum.ADDITION, 2);
+
+        assertTrue(limiter.tryAcquire(1L, OperationTypeEnum.ADDITION, 2).isZero());
+    }
+}
@@ -0,0 +1,84 @@
+package com.br.calculator.security.jwt;
+
+import com.br.calculator.entities.User;
+import com.br.calculator.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static com.br.calculator.enums.UserStatusEnum.ACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey",
+                Base64.getEncoder().encodeToString("a-test-secret-that-is-long-enough-for-hs256".getBytes()));
+        user = new User(7L, "test_user", "password123", ACTIVE);
+    }
+
+    // Test: Principal is rebuilt from the signed claims without a user lookup
+    @Test
+    void testExtractPrincipalFromClaims() {
+        Claims claims = jwtUtil.parseToken(jwtUtil.generateToken(new AuthenticatedUser(user)));
+
+        AuthenticatedUser principal = jwtUtil.extractPrincipal(claims);
+
+        assertNotNull(principal);
+        assertEquals(7L, principal.getUser().getId());
+        assertEquals("test_user", principal.getUsername());
+        assertEquals(ACTIVE, principal.getUser().getStatus());
+        assertNotNull(claims.getId());
+    }
+
+    // Test: Tokens without the user id claim fall back to the lookup
+    @Test
+    void testExtractPrincipalWithoutUserIdClaim() {
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("test_user").password("password123").authorities("USER").build();
+        Claims claims = jwtUtil.parseToken(jwtUtil.generateToken(userDetails));
+
+        assertNull(jwtUtil.extractPrincipal(claims));
+    }
+
+    // Test: Revoked token ids are rejected until they expire
+    @Test
+    void testRevocationList() {
+        TokenRevocationList revocationList = new TokenRevocationList(true);
+        Claims claims = jwtUtil.parseToken(jwtUtil.generateToken(new AuthenticatedUser(user)));
+
+        assertFalse(revocationList.isRevoked(claims.getId()));
+        revocationList.revoke(claims.getId(), claims.getExpiration());
+        assertTrue(revocationList.isRevoked(claims.getId()));
+
+        revocationList.revoke("expired", new Date(System.currentTimeMillis() - 1000));
+        revocationList.purgeExpired();
+        assertFalse(revocationList.isRevoked("expired"));
+        assertTrue(revocationList.isRevoked(claims.getId()));
+    }
+
+    // Test: Revoking a user rejects their tokens issued before the revocation only
+    @Test
+    void testUserRevocation() {
+        TokenRevocationList revocationList = new TokenRevocationList(true);
+        Date issuedBefore = new Date(System.currentTimeMillis() - 5000);
+
+        assertFalse(revocationList.isRevoked(7L, issuedBefore));
+        revocationList.revokeUser(7L);
+
+        assertTrue(revocationList.isRevoked(7L, issuedBefore));
+        assertFalse(revocationList.isRevoked(7L, new Date(System.currentTimeMillis() + 1000)));
+        assertFalse(revocationList.isRevoked(8L, issuedBefore));
+    }
+}
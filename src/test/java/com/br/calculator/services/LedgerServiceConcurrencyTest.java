@@ -0,0 +1,215 @@
+package com.br.calculator.services;
+
+import com.br.calculator.entities.Operation;
+import com.br.calculator.entities.Record;
+import com.br.calculator.entities.User;
+import com.br.calculator.entities.UserBalance;
+import com.br.calculator.entities.UserOperationStats;
+import com.br.calculator.entities.UserOperationStatsId;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.enums.RecordStatusEnum;
+import com.br.calculator.exceptions.OperationException;
+import com.br.calculator.repositories.CreditReservationRepository;
+import com.br.calculator.repositories.OperationRepository;
+import com.br.calculator.repositories.RecordRepository;
+import com.br.calculator.repositories.UserBalanceRepository;
+import com.br.calculator.repositories.UserOperationStatsRepository;
+import com.br.calculator.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.br.calculator.enums.UserStatusEnum.ACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers the balance of one user from many threads, each transaction committing on its own,
+ * and checks the ledger never goes below zero or loses a charge.
+ */
+@DataJpaTest
+@Import(LedgerService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger;MODE=MySQL;NON_KEYWORDS=USER;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class LedgerServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+    private static final int COST = 3;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @MockBean
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OperationRepository operationRepository;
+
+    @Autowired
+    private UserBalanceRepository userBalanceRepository;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @Autowired
+    private UserOperationStatsRepository userOperationStatsRepository;
+
+    @Autowired
+    private CreditReservationRepository creditReservationRepository;
+
+    // Test: Reserve/commit/release of single and batch calculations from many threads never overdraw the balance
+    @Test
+    void testConcurrentChargesNeverOverdraw() throws Exception {
+        User user = userRepository.save(new User(null, "stress_user", "encodedPassword", ACTIVE));
+        Operation operation = operationRepository.save(new Operation(null, OperationTypeEnum.MULTIPLICATION, COST));
+        ledgerService.getBalance(user);
+        ledgerService.getOperationStats(user);
+
+        AtomicInteger charged = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        if ((thread + i) % 3 == 0) {
+                            // Batch of three where one operation failed: two are charged, one released
+                            Reservation reservation = ledgerService.reserveCredits(user, 3 * COST);
+                            ledgerService.commitBatchReservation(
+                                    List.of(newRecord(user, operation), newRecord(user, operation)), reservation);
+                            charged.addAndGet(2);
+                        } else {
+                            Reservation reservation = ledgerService.reserveCredits(user, COST);
+                            // Every fourth reserved calculation fails and gives its credits back
+                            if (i % 4 == 0) {
+                                ledgerService.releaseReservation(reservation);
+                            } else {
+                                ledgerService.commitReservation(newRecord(user, operation), reservation);
+                                charged.incrementAndGet();
+                            }
+                        }
+                    } catch (OperationException ex) {
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        UserBalance balance = userBalanceRepository.findById(user.getId()).orElseThrow();
+        assertTrue(balance.getBalance() >= 0, "Balance overdrawn: " + balance.getBalance());
+        assertEquals(0, balance.getReserved());
+        assertEquals(0, creditReservationRepository.count());
+        assertTrue(refused.get() > 0);
+        assertEquals(LedgerService.INITIAL_BALANCE - charged.get() * COST, balance.getBalance());
+        assertEquals(charged.get(), balance.getTotalOperations());
+        assertEquals(charged.get(), recordRepository.countByUserAndActive(user, true));
+        UserOperationStats stats = userOperationStatsRepository
+                .findById(new UserOperationStatsId(user.getId(), OperationTypeEnum.MULTIPLICATION)).orElseThrow();
+        assertEquals(charged.get(), stats.getOperationCount());
+        assertEquals((long) charged.get() * COST, stats.getSpent());
+    }
+
+    // Test: First requests of a new user racing to create the balance and statistics rows all get charged
+    @Test
+    void testConcurrentFirstRequests() throws Exception {
+        User user = userRepository.save(new User(null, "first_user", "encodedPassword", ACTIVE));
+        Operation operation = operationRepository.save(new Operation(null, OperationTypeEnum.ADDITION, COST));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ledgerService.commitReservation(newRecord(user, operation), ledgerService.reserveCredits(user, COST));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        UserBalance balance = userBalanceRepository.findById(user.getId()).orElseThrow();
+        assertEquals(LedgerService.INITIAL_BALANCE - THREADS * COST, balance.getBalance());
+        assertEquals(THREADS, balance.getTotalOperations());
+        UserOperationStats stats = userOperationStatsRepository
+                .findById(new UserOperationStatsId(user.getId(), OperationTypeEnum.ADDITION)).orElseThrow();
+        assertEquals(THREADS, stats.getOperationCount());
+        assertEquals((long) THREADS * COST, stats.getSpent());
+    }
+
+    // Test: Credits of a reservation that was never committed or released come back once it expires
+    @Test
+    void testExpiredReservationIsReclaimed() {
+        User user = userRepository.save(new User(null, "crashed_user", "encodedPassword", ACTIVE));
+        Operation operation = operationRepository.save(new Operation(null, OperationTypeEnum.DIVISION, COST));
+        Reservation leaked = ledgerService.reserveCredits(user, COST);
+        Reservation late = ledgerService.reserveCredits(user, COST);
+        creditReservationRepository.findAll().forEach(reservation -> {
+            reservation.setCreatedAt(LocalDateTime.now().minusHours(1));
+            creditReservationRepository.save(reservation);
+        });
+
+        ledgerService.reclaimExpiredReservations();
+
+        UserBalance balance = userBalanceRepository.findById(user.getId()).orElseThrow();
+        assertEquals(LedgerService.INITIAL_BALANCE, balance.getBalance());
+        assertEquals(0, balance.getReserved());
+        // A calculation finishing after its reservation was reclaimed is charged directly
+        ledgerService.commitReservation(newRecord(user, operation), late);
+        ledgerService.releaseReservation(leaked);
+        balance = userBalanceRepository.findById(user.getId()).orElseThrow();
+        assertEquals(LedgerService.INITIAL_BALANCE - COST, balance.getBalance());
+        assertEquals(0, balance.getReserved());
+    }
+
+    private static Record newRecord(User user, Operation operation) {
+        Record record = new Record();
+        record.setUser(user);
+        record.setOperation(operation);
+        record.setCost(COST);
+        record.setActive(true);
+        record.setStatus(RecordStatusEnum.COMPLETED);
+        record.setAmount(0);
+        return record;
+    }
+}
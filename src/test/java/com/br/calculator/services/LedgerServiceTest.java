@@ -0,0 +1,304 @@
+package com.br.calculator.services;
+
+import com.br.calculator.entities.CreditReservation;
+import com.br.calculator.entities.Operation;
+import com.br.calculator.entities.Record;
+import com.br.calculator.entities.User;
+import com.br.calculator.dto.OperationTypeTotals;
+import com.br.calculator.entities.UserBalance;
+import com.br.calculator.entities.UserOperationStats;
+import com.br.calculator.entities.UserOperationStatsId;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.exceptions.OperationException;
+import com.br.calculator.repositories.CreditReservationRepository;
+import com.br.calculator.repositories.RecordRepository;
+import com.br.calculator.repositories.UserBalanceRepository;
+import com.br.calculator.repositories.UserOperationStatsRepository;
+import com.br.calculator.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LedgerServiceTest {
+
+    @Mock
+    private UserBalanceRepository userBalanceRepository;
+
+    @Mock
+    private RecordRepository recordRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserOperationStatsRepository userOperationStatsRepository;
+
+    @Mock
+    private CreditReservationRepository creditReservationRepository;
+
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = new User();
+        user.setId(1L);
+        user.setUsername("test_user");
+        when(userBalanceRepository.save(any(UserBalance.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userOperationStatsRepository.saveAll(any())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+        when(userOperationStatsRepository.applyOperations(any(), any(), any(), any(), any(), any())).thenReturn(1);
+        when(userOperationStatsRepository.revertOperation(any(), any(), any())).thenReturn(1);
+        when(userOperationStatsRepository.existsById(any(UserOperationStatsId.class))).thenReturn(true);
+    }
+
+    // Test: Existing balance row is returned without touching the records
+    @Test
+    void testGetBalance_ExistingRow() {
+        UserBalance userBalance = new UserBalance(1L, 150, 10L, 42L, null, 0, 0L);
+        when(userBalanceRepository.findById(1L)).thenReturn(Optional.of(userBalance));
+
+        assertSame(userBalance, ledgerService.getBalance(user));
+        verifyNoInteractions(recordRepository);
+    }
+
+    // Test: Missing balance row is rebuilt from the record history
+    @Test
+    void testGetBalance_RebuildsMissingRow() {
+        when(userBalanceRepository.findById(1L)).thenReturn(Optional.empty());
+        when(recordRepository.sumActiveCostByUser(user)).thenReturn(35L);
+        when(recordRepository.countByUserAndActive(user, true)).thenReturn(7L);
+        when(recordRepository.findLastActiveRecordId(user)).thenReturn(99L);
+
+        UserBalance userBalance = ledgerService.getBalance(user);
+
+        assertEquals(LedgerService.INITIAL_BALANCE - 35, userBalance.getBalance());
+        assertEquals(7L, userBalance.getTotalOperations());
+        assertEquals(99L, userBalance.getLastRecordId());
+    }
+
+    // Test: A balance row inserted concurrently by another first request is read instead of failing
+    @Test
+    void testGetBalance_CreatedConcurrently() {
+        UserBalance concurrent = new UserBalance(1L, 197, 1L, 5L, null, 0, 0L);
+        when(userBalanceRepository.findById(1L)).thenReturn(Optional.empty(), Optional.empty(), Optional.of(concurrent));
+        when(userBalanceRepository.save(any(UserBalance.class))).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertSame(concurrent, ledgerService.getBalance(user));
+    }
+
+    // Test: Missing statistics rows are created before the increment, leaving existing rows alone
+    @Test
+    void testCommitReservation_CreatesMissingStatsRows() {
+        when(userOperationStatsRepository.existsById(new UserOperationStatsId(1L, OperationTypeEnum.MULTIPLICATION))).thenReturn(false);
+        when(userOperationStatsRepository.findByIdUserId(1L)).thenReturn(List.of(
+                new UserOperationStats(new UserOperationStatsId(1L, OperationTypeEnum.ADDITION))));
+        Record saved = savedRecord();
+        when(creditReservationRepository.deleteReservation(11L)).thenReturn(1);
+        when(userBalanceRepository.commitReservation(eq(1L), eq(3), eq(3), eq(1L), eq(5L), any())).thenReturn(1);
+
+        ledgerService.commitReservation(saved, new Reservation(11L, user, 3, null));
+
+        verify(userOperationStatsRepository).saveAll(argThat((List<UserOperationStats> rows) -> rows.size() == OperationTypeEnum.values().length - 1));
+        verify(userOperationStatsRepository).applyOperations(1L, OperationTypeEnum.MULTIPLICATION, 1L, 3L, saved.getDate(), saved.getDate());
+    }
+
+    // Test: Statistics rows inserted concurrently by another first request still get the increment
+    @Test
+    void testCommitReservation_StatsRowsCreatedConcurrently() {
+        when(userOperationStatsRepository.existsById(any(UserOperationStatsId.class))).thenReturn(false);
+        when(userOperationStatsRepository.findByIdUserId(1L)).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(userOperationStatsRepository).saveAll(any());
+        Record saved = savedRecord();
+        when(creditReservationRepository.deleteReservation(11L)).thenReturn(1);
+        when(userBalanceRepository.commitReservation(eq(1L), eq(3), eq(3), eq(1L), eq(5L), any())).thenReturn(1);
+
+        ledgerService.commitReservation(saved, new Reservation(11L, user, 3, null));
+
+        verify(userOperationStatsRepository).applyOperations(1L, OperationTypeEnum.MULTIPLICATION, 1L, 3L, saved.getDate(), saved.getDate());
+    }
+
+    // Test: Committing a held reservation turns its credits into the charge and moves the ledger head
+    @Test
+    void testCommitReservation_ChargesReservedCredits() {
+        Record saved = savedRecord();
+        when(creditReservationRepository.deleteReservation(11L)).thenReturn(1);
+        when(userBalanceRepository.commitReservation(eq(1L), eq(3), eq(3), eq(1L), eq(5L), any())).thenReturn(1);
+
+        ledgerService.commitReservation(saved, new Reservation(11L, user, 3, null));
+
+        verify(userBalanceRepository, never()).applyOperations(any(), any(), any(), any(), any());
+        verify(userOperationStatsRepository, times(1)).applyOperations(1L, OperationTypeEnum.MULTIPLICATION, 1L, 3L, saved.getDate(), saved.getDate());
+    }
+
+    // Test: A reservation reclaimed meanwhile is charged directly, and refused when the balance doesn't cover it
+    @Test
+    void testCommitReservation_ReclaimedAndInsufficientCredits() {
+        Record saved = savedRecord();
+        when(creditReservationRepository.deleteReservation(11L)).thenReturn(0);
+        when(userBalanceRepository.applyOperations(eq(1L), eq(3), eq(1L), eq(5L), any())).thenReturn(0);
+
+        OperationException exception = assertThrows(OperationException.class,
+                () -> ledgerService.commitReservation(saved, new Reservation(11L, user, 3, null)));
+        assertEquals("Insufficient credits to execute this operation", exception.getMessage());
+    }
+
+    // Test: A batch commit charges only the records written and gives the rest of the reservation back
+    @Test
+    void testCommitBatchReservation_ReleasesUnusedCredits() {
+        Record first = savedRecord();
+        first.setCost(3);
+        first.setDate(LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(recordRepository.findLastActiveRecordId(user)).thenReturn(6L);
+        when(creditReservationRepository.deleteReservation(11L)).thenReturn(1);
+        when(userBalanceRepository.commitReservation(eq(1L), eq(10), eq(3), eq(1L), eq(6L), any())).thenReturn(1);
+
+        ledgerService.commitBatchReservation(List.of(first), new Reservation(11L, user, 10, null));
+
+        verify(recordRepository).batchInsert(List.of(first));
+        verify(userBalanceRepository).commitReservation(eq(1L), eq(10), eq(3), eq(1L), eq(6L), any());
+        verify(userOperationStatsRepository).applyOperations(1L, OperationTypeEnum.MULTIPLICATION, 1L, 3L, first.getDate(), first.getDate());
+    }
+
+    // Test: A batch with nothing to write just releases its reservation
+    @Test
+    void testCommitBatchReservation_NoRecords() {
+        when(creditReservationRepository.deleteReservation(11L)).thenReturn(1);
+        when(userBalanceRepository.releaseReservation(eq(1L), eq(10), any())).thenReturn(1);
+
+        ledgerService.commitBatchReservation(List.of(), new Reservation(11L, user, 10, null));
+
+        verify(recordRepository, never()).batchInsert(any());
+        verify(userBalanceRepository).releaseReservation(eq(1L), eq(10), any());
+    }
+
+    // Test: Reserving returns the balance after the reservation, or refuses when it isn't covered
+    @Test
+    void testReserveCredits() {
+        when(userBalanceRepository.findById(1L)).thenReturn(Optional.of(new UserBalance(1L, 197, 0L, null, null, 3, 1L)));
+        when(userBalanceRepository.reserveCredits(eq(1L), eq(3), any())).thenReturn(1);
+        when(userBalanceRepository.reserveCredits(eq(1L), eq(500), any())).thenReturn(0);
+        when(creditReservationRepository.save(any(CreditReservation.class))).thenAnswer(invocation -> {
+            CreditReservation reservation = invocation.getArgument(0);
+            reservation.setId(11L);
+            return reservation;
+        });
+
+        Reservation reservation = ledgerService.reserveCredits(user, 3);
+
+        assertEquals(11L, reservation.id());
+        assertEquals(197, reservation.balance().getBalance());
+        assertThrows(OperationException.class, () -> ledgerService.reserveCredits(user, 500));
+    }
+
+    // Test: A reservation already reclaimed is not released twice
+    @Test
+    void testReleaseReservation_AlreadyReclaimed() {
+        when(creditReservationRepository.deleteReservation(11L)).thenReturn(0);
+
+        ledgerService.releaseReservation(new Reservation(11L, user, 3, null));
+
+        verify(userBalanceRepository, never()).releaseReservation(any(), any(), any());
+    }
+
+    // Test: Reclaiming an expired reservation gives its credits back and drops the user's cached stats
+    @Test
+    void testReclaimExpiredReservations_EvictsStats() {
+        when(creditReservationRepository.findExpired(any(), any())).thenReturn(List.of(
+                new CreditReservation(11L, 1L, 3, LocalDateTime.now().minusHours(1)),
+                new CreditReservation(12L, 2L, 4, LocalDateTime.now().minusHours(1))));
+        when(creditReservationRepository.deleteReservation(11L)).thenReturn(1);
+        when(creditReservationRepository.deleteReservation(12L)).thenReturn(0);
+        when(userBalanceRepository.releaseReservation(eq(1L), eq(3), any())).thenReturn(1);
+
+        ledgerService.reclaimExpiredReservations();
+
+        verify(userBalanceRepository).releaseReservation(eq(1L), eq(3), any());
+        verify(userCacheService).evictStats(1L);
+        verify(userCacheService, never()).evictStats(2L);
+    }
+
+    // Test: Rebuilding keeps the credits of live reservations and drops leaked reserved credits
+    @Test
+    void testRebuildBalance_KeepsReservedCredits() {
+        UserBalance existing = new UserBalance(1L, 150, 5L, 9L, null, 6, 4L);
+        when(userBalanceRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(recordRepository.sumActiveCostByUser(user)).thenReturn(35L);
+        when(recordRepository.countByUserAndActive(user, true)).thenReturn(7L);
+        when(creditReservationRepository.sumCostByUserId(1L)).thenReturn(4L);
+
+        UserBalance rebuilt = ledgerService.rebuildBalance(user);
+
+        assertSame(existing, rebuilt);
+        assertEquals(4, rebuilt.getReserved());
+        assertEquals(LedgerService.INITIAL_BALANCE - 35 - 4, rebuilt.getBalance());
+    }
+
+    // Test: Soft deleting a record refunds its cost
+    @Test
+    void testDeleteRecord_RevertsOperation() {
+        when(userBalanceRepository.findById(1L)).thenReturn(Optional.of(new UserBalance(1L, 197, 1L, 5L, null, 0, 0L)));
+        Record record = new Record();
+        record.setUser(user);
+        record.setActive(true);
+        record.setOperation(new Operation(1L, OperationTypeEnum.MULTIPLICATION, 3));
+
+        ledgerService.deleteRecord(record);
+
+        assertFalse(record.getActive());
+        verify(recordRepository, times(1)).save(record);
+        verify(userBalanceRepository, times(1)).revertOperation(eq(1L), eq(3), any());
+        verify(userOperationStatsRepository, times(1)).revertOperation(1L, OperationTypeEnum.MULTIPLICATION, 3L);
+    }
+
+    // Test: Missing statistics rows are built from the records, one row per operation type
+    @Test
+    void testGetOperationStats_RebuildsMissingRows() {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime last = LocalDateTime.of(2024, 2, 1, 10, 0);
+        when(userOperationStatsRepository.findByIdUserId(1L)).thenReturn(List.of());
+        when(recordRepository.sumByUserAndType(1L, 1L)).thenReturn(List.of(
+                new OperationTypeTotals(1L, OperationTypeEnum.DIVISION, 4L, 16L, first, last)));
+
+        List<UserOperationStats> operationStats = ledgerService.getOperationStats(user);
+
+        assertEquals(OperationTypeEnum.values().length, operationStats.size());
+        UserOperationStats division = operationStats.stream()
+                .filter(stats -> stats.getId().getOperationType() == OperationTypeEnum.DIVISION)
+                .findFirst().orElseThrow();
+        assertEquals(4L, division.getOperationCount());
+        assertEquals(16L, division.getSpent());
+        assertEquals(first, division.getFirstOperationAt());
+        assertEquals(last, division.getLastOperationAt());
+    }
+
+    private Record savedRecord() {
+        Record saved = new Record();
+        saved.setId(5L);
+        saved.setUser(user);
+        saved.setOperation(new Operation(3L, OperationTypeEnum.MULTIPLICATION, 3));
+        when(recordRepository.save(saved)).thenReturn(saved);
+        return saved;
+    }
+}
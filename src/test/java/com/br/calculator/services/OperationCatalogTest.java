@@ -0,0 +1,79 @@
+package com.br.calculator.services;
+
+import com.br.calculator.config.OperationCatalogProperties;
+import com.br.calculator.entities.Operation;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.repositories.OperationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OperationCatalogTest {
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    private OperationCatalog operationCatalog;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        operationCatalog = new OperationCatalog(operationRepository, new OperationCatalogProperties());
+        when(operationRepository.findFirstByTypeOrderByIdDesc(any())).thenAnswer(invocation -> {
+            OperationTypeEnum operationType = invocation.getArgument(0);
+            return Optional.of(new Operation((long) operationType.ordinal() + 1, operationType,
+                    new OperationCatalogProperties().getCosts().get(operationType)));
+        });
+        when(operationRepository.save(any(Operation.class))).thenAnswer(invocation -> {
+            Operation operation = invocation.getArgument(0);
+            operation.setId(100L);
+            return operation;
+        });
+    }
+
+    // Test: Rows already at the configured cost are reused without writes
+    @Test
+    void testSeedReusesRowsAtConfiguredCost() {
+        Operation addition = operationCatalog.getOperation(OperationTypeEnum.ADDITION);
+
+        assertEquals(1L, addition.getId());
+        assertEquals(1, addition.getCost());
+        verify(operationRepository, never()).save(any());
+    }
+
+    // Test: A new price gets a row of its own and the row referenced by past records keeps its cost
+    @Test
+    void testSeedRepricingInsertsNewRow() {
+        Operation legacy = new Operation(3L, OperationTypeEnum.MULTIPLICATION, 3);
+        when(operationRepository.findFirstByTypeOrderByIdDesc(OperationTypeEnum.MULTIPLICATION)).thenReturn(Optional.of(legacy));
+        OperationCatalogProperties properties = new OperationCatalogProperties();
+        properties.getCosts().put(OperationTypeEnum.MULTIPLICATION, 5);
+        operationCatalog = new OperationCatalog(operationRepository, properties);
+
+        Operation multiplication = operationCatalog.getOperation(OperationTypeEnum.MULTIPLICATION);
+
+        assertEquals(100L, multiplication.getId());
+        assertEquals(5, multiplication.getCost());
+        assertEquals(3, legacy.getCost());
+        verify(operationRepository, times(1)).save(any());
+        verify(operationRepository, never()).save(legacy);
+    }
+
+    // Test: A type with no row yet is registered at its configured cost
+    @Test
+    void testSeedRegistersMissingType() {
+        when(operationRepository.findFirstByTypeOrderByIdDesc(OperationTypeEnum.EXPRESSION)).thenReturn(Optional.empty());
+
+        Operation expression = operationCatalog.getOperation(OperationTypeEnum.EXPRESSION);
+
+        assertEquals(100L, expression.getId());
+        assertEquals(1, expression.getCost());
+    }
+}
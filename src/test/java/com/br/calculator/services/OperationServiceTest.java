@@ -1,29 +1,74 @@
 package com.br.calculator.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import com.br.calculator.config.CalculationEngineProperties;
+import com.br.calculator.dto.BalanceResponse;
+import com.br.calculator.dto.OperationJobResponse;
 import com.br.calculator.dto.OperationRequest;
 import com.br.calculator.dto.OperationResponse;
+import com.br.calculator.dto.RecordResponse;
+import com.br.calculator.dto.RecordSliceResponse;
+import com.br.calculator.entities.Operation;
+import com.br.calculator.entities.Record;
 import com.br.calculator.entities.User;
+import com.br.calculator.entities.UserBalance;
+import com.br.calculator.engine.CalculationCoalescer;
+import com.br.calculator.engine.CalculationEngineRouter;
+import com.br.calculator.engine.LambdaCalculationEngine;
+import com.br.calculator.engine.LocalCalculationEngine;
 import com.br.calculator.enums.OperationTypeEnum;
-import com.br.calculator.repositories.OperationRepository;
+import com.br.calculator.enums.RecordStatusEnum;
+import com.br.calculator.enums.UserEventTypeEnum;
+import com.br.calculator.events.UserEvent;
+import com.br.calculator.events.UserEventBus;
+import com.br.calculator.exceptions.EngineUnavailableException;
+import com.br.calculator.exceptions.OperationException;
+import com.br.calculator.exceptions.TooManyRequestsException;
+import com.br.calculator.metrics.CalculationMetrics;
 import com.br.calculator.repositories.RecordRepository;
 import com.br.calculator.services.OperationService;
 import com.br.calculator.services.RecordService;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.TestPropertySource;
-import software.amazon.awssdk.services.lambda.LambdaClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.lambda.LambdaAsyncClient;
 import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.ServiceException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @TestPropertySource("classpath:test-application.properties")
 @SpringBootTest
@@ -34,26 +79,44 @@ public class OperationServiceTest {
     @Mock
     private RecordService recordService;
     @Mock
-    private OperationRepository operationRepository;
+    private OperationCatalog operationCatalog;
     @Mock
     private RecordRepository recordRepository;
     @Mock
-    private LambdaClient lambdaClient;
+    private LedgerService ledgerService;
+    @Mock
+    private LambdaAsyncClient lambdaClient;
+    @Spy
+    private CalculationEngineRouter calculationEngineRouter = localRouter();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private CalculationMetrics calculationMetrics = new CalculationMetrics(meterRegistry);
+    @Spy
+    private ExpressionService expressionService = new ExpressionService(100);
+    @Spy
+    private CalculationCoalescer calculationCoalescer = new CalculationCoalescer(meterRegistry);
 
     private User user;
 
     @Mock
-    private CacheManager cacheManager;
+    private UserCacheService userCacheService;
 
     @Mock
-    private Cache cache;
+    private UserEventBus userEventBus;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
         user = new User();
-        operationService.setLambdaFunction(System.getenv("AWS_LAMBDA_FUNCTION"));
-        when(cacheManager.getCache(anyString())).thenReturn(cache);
+        when(operationCatalog.getOperation(any(OperationTypeEnum.class))).thenAnswer(invocation -> {
+            OperationTypeEnum operationType = invocation.getArgument(0);
+            return new Operation((long) operationType.ordinal() + 1, operationType, operationType.ordinal() + 1);
+        });
+        when(operationCatalog.getCost(any(OperationTypeEnum.class))).thenAnswer(invocation ->
+                ((OperationTypeEnum) invocation.getArgument(0)).ordinal() + 1);
+        when(ledgerService.getBalance(any(User.class))).thenReturn(new UserBalance(null, LedgerService.INITIAL_BALANCE, 0L, null, null, 0, 0L));
+        when(ledgerService.reserveCredits(any(User.class), anyInt())).thenAnswer(invocation -> new Reservation(1L, user, invocation.getArgument(1),
+                new UserBalance(null, LedgerService.INITIAL_BALANCE - (Integer) invocation.getArgument(1), 0L, null, null, invocation.getArgument(1), 1L)));
     }
 
     @Test
@@ -65,6 +128,52 @@ public class OperationServiceTest {
         assertEquals("\"Result: 8.0\"", response.getOperationResult());
     }
 
+    // Test: A completed operation writes the user's fresh stats through to the cache instead of evicting them
+    @Test
+    public void testExecuteOperationWritesStatsThrough() {
+        user.setId(1L);
+        when(ledgerService.getBalance(user)).thenReturn(new UserBalance(1L, 199, 1L, 5L, null, 0, 2L));
+
+        operationService.executeOperation(new OperationRequest("ADDITION", 5.0, 3.0), user);
+
+        verify(userCacheService).refreshUser(eq(1L), argThat(stats -> stats.getCurrentBalance() == 199 && stats.getTotalOperations() == 1L));
+    }
+
+    // Test: A completed operation pushes the operation and the new balance to the user's event streams
+    @Test
+    public void testExecuteOperationPublishesEvents() {
+        OperationResponse response = operationService.executeOperation(new OperationRequest("ADDITION", 5.0, 3.0), user);
+
+        ArgumentCaptor<UserEvent> events = ArgumentCaptor.forClass(UserEvent.class);
+        verify(userEventBus, times(2)).publish(any(), events.capture());
+        assertEquals(UserEventTypeEnum.OPERATION, events.getAllValues().get(0).type());
+        assertSame(response, events.getAllValues().get(0).data());
+        BalanceResponse balance = (BalanceResponse) events.getAllValues().get(1).data();
+        assertEquals(200 - 1, balance.getCurrentBalance());
+        assertEquals(1L, balance.getTotalOperations());
+    }
+
+    // Test: A failed operation publishes nothing
+    @Test
+    public void testFailedOperationPublishesNoEvents() {
+        assertThrows(OperationException.class, () -> operationService.executeOperation(new OperationRequest("DIVISION", 5.0, 0.0), user));
+
+        verify(userEventBus, never()).publish(any(), any());
+    }
+
+    @Test
+    public void testExecuteOperationRecordsStageTimers() {
+        OperationRequest request = new OperationRequest("ADDITION", 5.0, 3.0);
+        operationService.executeOperation(request, user);
+        for (String stage : List.of(CalculationMetrics.VALIDATION, CalculationMetrics.RESERVE, CalculationMetrics.ENGINE,
+                CalculationMetrics.RECORD_SAVE, CalculationMetrics.CACHE_UPDATE)) {
+            assertEquals(1, meterRegistry.get(CalculationMetrics.STAGE_TIMER)
+                    .tags("stage", stage, "type", "ADDITION", "outcome", "success").timer().count());
+        }
+        assertEquals(1, meterRegistry.get(CalculationMetrics.OPERATION_TIMER)
+                .tags("type", "ADDITION", "outcome", "success").timer().count());
+    }
+
     @Test
     public void testExecuteOperationSubtraction() {
         OperationRequest request = new OperationRequest("SUBTRACTION", 10.0, 4.0);
@@ -102,13 +211,263 @@ public class OperationServiceTest {
     }
 
     @Test
-    public void testInvokeLambdaError() {
-        operationService.setLambdaFunction("testFail");
-        OperationRequest request = new OperationRequest("ADDITION", 5.0, 3.0);
-        when(lambdaClient.invoke(any(InvokeRequest.class))).thenThrow(new RuntimeException("Lambda invocation failed"));
+    public void testExecuteOperationExpression() {
+        OperationRequest request = new OperationRequest("EXPRESSION", "sqrt(x * x + y * y) - 1", Map.of("x", 3.0, "y", 4.0));
         OperationResponse response = operationService.executeOperation(request, user);
         assertNotNull(response);
-        assertEquals("Error: Could not invoke Lambda function.", response.getOperationResult());
+        assertEquals(200 - 7 * 5, response.getAmount()); // EXPRESSION unit cost times its 5 operators
+        assertEquals("\"Result: 4.0\"", response.getOperationResult());
+    }
+
+    @Test
+    public void testExecuteOperationExpressionMissingVariable() {
+        OperationRequest request = new OperationRequest("EXPRESSION", "x + y", Map.of("x", 3.0));
+        OperationException exception = assertThrows(OperationException.class, () -> operationService.executeOperation(request, user));
+        assertEquals("Missing value for variable 'y'", exception.getMessage());
+        verify(ledgerService, never()).commitReservation(any(), any());
+    }
+
+    @Test
+    public void testInvokeLambdaError() {
+        useLambdaEngine(CircuitBreaker.ofDefaults("lambda"));
+        OperationRequest request = new OperationRequest("ADDITION", 5.0, 3.0);
+        when(lambdaClient.invoke(any(InvokeRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(ServiceException.builder().message("Lambda invocation failed").build()));
+        assertThrows(EngineUnavailableException.class, () -> operationService.executeOperation(request, user));
+        verify(ledgerService, never()).commitReservation(any(), any());
+    }
+
+    @Test
+    public void testInvokeLambdaErrorReleasesReservation() {
+        useLambdaEngine(CircuitBreaker.ofDefaults("lambda"));
+        OperationRequest request = new OperationRequest("DIVISION", 6.0, 3.0);
+        when(lambdaClient.invoke(any(InvokeRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(ServiceException.builder().message("Lambda invocation failed").build()));
+        assertThrows(EngineUnavailableException.class, () -> operationService.executeOperation(request, user));
+        verify(ledgerService).reserveCredits(user, 4);
+        verify(ledgerService).releaseReservation(argThat(reservation -> reservation.cost() == 4));
+    }
+
+    // Test: A failed record commit gives the reserved credits back too
+    @Test
+    public void testCommitErrorReleasesReservation() {
+        when(ledgerService.commitReservation(any(), any())).thenThrow(new OperationException("Insufficient credits to execute this operation"));
+        OperationRequest request = new OperationRequest("ADDITION", 5.0, 3.0);
+        assertThrows(OperationException.class, () -> operationService.executeOperation(request, user));
+        verify(ledgerService).releaseReservation(argThat(reservation -> reservation.cost() == 1));
+        verify(userEventBus, never()).publish(any(), any());
+    }
+
+    // Test: A batch pushes one operation event per successful item, then the new balance
+    @Test
+    public void testExecuteBatchPublishesEvents() {
+        List<OperationRequest> requests = List.of(new OperationRequest("ADDITION", 5.0, 3.0),
+                new OperationRequest("DIVISION", 5.0, 0.0), new OperationRequest("SUBTRACTION", 5.0, 3.0));
+
+        operationService.executeBatch(requests, user);
+
+        ArgumentCaptor<UserEvent> events = ArgumentCaptor.forClass(UserEvent.class);
+        verify(userEventBus, times(3)).publish(any(), events.capture());
+        assertEquals(UserEventTypeEnum.OPERATION, events.getAllValues().get(0).type());
+        assertEquals(new OperationResponse("\"Result: 8.0\"", 200 - 1), events.getAllValues().get(0).data());
+        assertEquals(new OperationResponse("\"Result: 2.0\"", 200 - 1 - 2), events.getAllValues().get(1).data());
+        assertEquals(UserEventTypeEnum.BALANCE, events.getAllValues().get(2).type());
+    }
+
+    // Test: A batch reserves the cost of its valid items up front and commits only the items that succeeded
+    @Test
+    public void testExecuteBatchReservesTotalCost() {
+        List<OperationRequest> requests = List.of(new OperationRequest("ADDITION", 5.0, 3.0),
+                new OperationRequest("DIVISION", 5.0, 0.0), new OperationRequest("SUBTRACTION", 5.0, 3.0));
+
+        operationService.executeBatch(requests, user);
+
+        verify(ledgerService).reserveCredits(user, 1 + 2);
+        verify(ledgerService).commitBatchReservation(argThat(records -> records.size() == 2), argThat(reservation -> reservation.cost() == 3));
+        verify(ledgerService, never()).releaseReservation(any());
+    }
+
+    // Test: A failed batch commit gives the whole reservation back
+    @Test
+    public void testExecuteBatchCommitErrorReleasesReservation() {
+        doThrow(new IllegalStateException("No credits reserved")).when(ledgerService).commitBatchReservation(any(), any());
+        List<OperationRequest> requests = List.of(new OperationRequest("ADDITION", 5.0, 3.0));
+
+        assertThrows(IllegalStateException.class, () -> operationService.executeBatch(requests, user));
+        verify(ledgerService).releaseReservation(argThat(reservation -> reservation.cost() == 1));
+        verify(userEventBus, never()).publish(any(), any());
+    }
+
+    // Test: A batch the balance doesn't cover is rejected before any engine call
+    @Test
+    public void testExecuteBatchInsufficientCredits() {
+        when(ledgerService.reserveCredits(any(User.class), anyInt()))
+                .thenThrow(new OperationException("Insufficient credits to execute this operation"));
+        List<OperationRequest> requests = List.of(new OperationRequest("ADDITION", 5.0, 3.0));
+
+        OperationException ex = assertThrows(OperationException.class, () -> operationService.executeBatch(requests, user));
+        assertEquals("Insufficient credits to execute this batch", ex.getMessage());
+        verify(calculationEngineRouter, never()).calculateAsync(any(), any(), any());
+        verify(ledgerService, never()).commitBatchReservation(any(), any());
+    }
+
+    // Test: A completed job pushes its result once the record is completed
+    @Test
+    public void testCompletedJobPublishesOperation() {
+        ReflectionTestUtils.setField(operationService, "calculationExecutor", (Executor) Runnable::run);
+        Record saved = new Record();
+        saved.setId(7L);
+        when(ledgerService.savePendingRecord(any(Record.class))).thenReturn(saved);
+
+        operationService.submitOperation(new OperationRequest("ADDITION", 5.0, 3.0), user);
+
+        verify(ledgerService).reserveCredits(user, 1);
+        verify(ledgerService).completeRecord(eq(7L), eq("\"Result: 8.0\""), argThat(reservation -> reservation.cost() == 1));
+        // Once at submission with the credits reserved, once more when the job is charged
+        verify(userCacheService, times(2)).refreshUser(any(), any());
+        ArgumentCaptor<UserEvent> events = ArgumentCaptor.forClass(UserEvent.class);
+        verify(userEventBus, times(3)).publish(any(), events.capture());
+        assertEquals(UserEventTypeEnum.OPERATION, events.getAllValues().get(0).type());
+        assertEquals(new OperationJobResponse(7L, RecordStatusEnum.COMPLETED.name(), "\"Result: 8.0\"", 200 - 1),
+                events.getAllValues().get(0).data());
+        assertEquals(UserEventTypeEnum.BALANCE, events.getAllValues().get(1).type());
+    }
+
+    // Test: A job whose calculation fails gives its reserved credits back instead of being charged
+    @Test
+    public void testFailedJobReleasesReservation() {
+        ReflectionTestUtils.setField(operationService, "calculationExecutor", (Executor) Runnable::run);
+        Record saved = new Record();
+        saved.setId(7L);
+        when(ledgerService.savePendingRecord(any(Record.class))).thenReturn(saved);
+        OperationRequest request = new OperationRequest("EXPRESSION", "x + y", Map.of("x", 3.0));
+
+        operationService.submitOperation(request, user);
+
+        verify(ledgerService).failRecord(eq(7L), eq("Error: Missing value for variable 'y'"), argThat(reservation -> reservation.cost() == 7));
+        verify(ledgerService, never()).completeRecord(any(), any(), any());
+    }
+
+    // Test: A job the calculation queue rejects releases its reservation and is reported as throttled
+    @Test
+    public void testRejectedJobReleasesReservation() {
+        ReflectionTestUtils.setField(operationService, "calculationExecutor", (Executor) command -> {
+            throw new RejectedExecutionException("full");
+        });
+        Record saved = new Record();
+        saved.setId(7L);
+        when(ledgerService.savePendingRecord(any(Record.class))).thenReturn(saved);
+
+        assertThrows(TooManyRequestsException.class,
+                () -> operationService.submitOperation(new OperationRequest("ADDITION", 5.0, 3.0), user));
+        verify(ledgerService).failRecord(eq(7L), any(), argThat(reservation -> reservation.cost() == 1));
+    }
+
+    @Test
+    public void testExecuteOperationInsufficientCredits() {
+        when(ledgerService.reserveCredits(any(User.class), anyInt()))
+                .thenThrow(new OperationException("Insufficient credits to execute this operation"));
+        OperationRequest request = new OperationRequest("ADDITION", 5.0, 3.0);
+        assertThrows(OperationException.class, () -> operationService.executeOperation(request, user));
+        verify(ledgerService, never()).releaseReservation(any());
+        verify(ledgerService, never()).commitReservation(any(), any());
+    }
+
+    @Test
+    public void testInvokeLambdaCircuitOpen() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("lambda");
+        circuitBreaker.transitionToOpenState();
+        useLambdaEngine(circuitBreaker);
+        OperationRequest request = new OperationRequest("ADDITION", 5.0, 3.0);
+        assertThrows(EngineUnavailableException.class, () -> operationService.executeOperation(request, user));
+        verify(lambdaClient, never()).invoke(any(InvokeRequest.class));
+        verify(ledgerService, never()).commitReservation(any(), any());
+    }
+
+    // Test: A full slice fetched ascending reports another slice and points the cursor at its last record
+    @Test
+    public void testGetUserRecordsSliceAscendingHasNext() {
+        user.setId(1L);
+        when(recordRepository.findRecordResponsesAfter(eq(1L), eq(0L), any())).thenReturn(recordResponses(1, 2, 3, 4));
+
+        RecordSliceResponse slice = operationService.getUserRecordsSlice(user, null, 3, Sort.Direction.ASC);
+
+        assertEquals(List.of(1L, 2L, 3L), slice.getContent().stream().map(RecordResponse::getId).toList());
+        assertTrue(slice.getHasNext());
+        assertEquals(new RecordCursor(3L, Sort.Direction.ASC), RecordCursor.decode(slice.getNextCursor()));
+        verify(recordRepository).findRecordResponsesAfter(1L, 0L, PageRequest.of(0, 4, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    // Test: A slice of exactly the requested size with nothing after it is the last one
+    @Test
+    public void testGetUserRecordsSliceAscendingLastSlice() {
+        user.setId(1L);
+        when(recordRepository.findRecordResponsesAfter(eq(1L), eq(3L), any())).thenReturn(recordResponses(4, 5, 6));
+
+        RecordSliceResponse slice = operationService.getUserRecordsSlice(user,
+                new RecordCursor(3L, Sort.Direction.ASC).encode(), 3, Sort.Direction.ASC);
+
+        assertEquals(List.of(4L, 5L, 6L), slice.getContent().stream().map(RecordResponse::getId).toList());
+        assertFalse(slice.getHasNext());
+        assertNull(slice.getNextCursor());
+    }
+
+    // Test: Descending slices seek before the cursor, whose direction wins over the requested one
+    @Test
+    public void testGetUserRecordsSliceDescending() {
+        user.setId(1L);
+        when(recordRepository.findRecordResponsesBefore(eq(1L), eq(Long.MAX_VALUE), any())).thenReturn(recordResponses(9, 8, 7));
+        when(recordRepository.findRecordResponsesBefore(eq(1L), eq(8L), any())).thenReturn(recordResponses(7));
+
+        RecordSliceResponse first = operationService.getUserRecordsSlice(user, null, 2, Sort.Direction.DESC);
+        RecordSliceResponse last = operationService.getUserRecordsSlice(user, first.getNextCursor(), 2, Sort.Direction.ASC);
+
+        assertEquals(List.of(9L, 8L), first.getContent().stream().map(RecordResponse::getId).toList());
+        assertTrue(first.getHasNext());
+        assertEquals(new RecordCursor(8L, Sort.Direction.DESC), RecordCursor.decode(first.getNextCursor()));
+        assertEquals(List.of(7L), last.getContent().stream().map(RecordResponse::getId).toList());
+        assertFalse(last.getHasNext());
+        assertNull(last.getNextCursor());
+        verify(recordRepository, never()).findRecordResponsesAfter(any(), any(), any());
+    }
+
+    // Test: An empty slice has no next cursor, and sizes outside the allowed range are rejected
+    @Test
+    public void testGetUserRecordsSliceEmptyAndInvalidSize() {
+        user.setId(1L);
+        when(recordRepository.findRecordResponsesBefore(eq(1L), eq(Long.MAX_VALUE), any())).thenReturn(List.of());
+
+        RecordSliceResponse slice = operationService.getUserRecordsSlice(user, null, 10, Sort.Direction.DESC);
+
+        assertTrue(slice.getContent().isEmpty());
+        assertFalse(slice.getHasNext());
+        assertNull(slice.getNextCursor());
+        assertThrows(OperationException.class, () -> operationService.getUserRecordsSlice(user, null, 0, Sort.Direction.DESC));
+        assertThrows(OperationException.class, () -> operationService.getUserRecordsSlice(user, null, 101, Sort.Direction.DESC));
+        assertThrows(OperationException.class, () -> operationService.getUserRecordsSlice(user, "tampered", 10, Sort.Direction.DESC));
+    }
+
+    private static List<RecordResponse> recordResponses(long... ids) {
+        List<RecordResponse> responses = new ArrayList<>();
+        for (long id : ids) {
+            responses.add(new RecordResponse(id, id, OperationTypeEnum.ADDITION, 1, 200, LocalDateTime.now()));
+        }
+        return responses;
+    }
+
+    private void useLambdaEngine(CircuitBreaker circuitBreaker) {
+        LambdaCalculationEngine lambdaEngine = new LambdaCalculationEngine(lambdaClient, circuitBreaker, Bulkhead.ofDefaults("lambda"));
+        lambdaEngine.setLambdaFunction("testFail");
+        CalculationEngineProperties properties = new CalculationEngineProperties();
+        properties.setDefaultEngine(LambdaCalculationEngine.NAME);
+        ReflectionTestUtils.setField(operationService, "calculationEngineRouter",
+                new CalculationEngineRouter(List.of(lambdaEngine), properties));
+    }
+
+    private static CalculationEngineRouter localRouter() {
+        CalculationEngineProperties properties = new CalculationEngineProperties();
+        properties.setDefaultEngine(LocalCalculationEngine.NAME);
+        return new CalculationEngineRouter(List.of(new LocalCalculationEngine()), properties);
     }
 
-}
\ No newline at end of file
+}
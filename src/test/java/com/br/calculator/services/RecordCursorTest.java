@@ -0,0 +1,60 @@
+package com.br.calculator.services;
+
+import com.br.calculator.exceptions.OperationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordCursorTest {
+
+    // Test: An encoded cursor decodes back to the same position and direction
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        RecordCursor ascending = new RecordCursor(42L, Sort.Direction.ASC);
+        RecordCursor descending = new RecordCursor(7L, Sort.Direction.DESC);
+
+        assertEquals(ascending, RecordCursor.decode(ascending.encode()));
+        assertEquals(descending, RecordCursor.decode(descending.encode()));
+    }
+
+    // Test: Encoded cursors are URL safe and unpadded, so they can be passed as a query parameter as is
+    @Test
+    void testEncodeIsUrlSafe() {
+        String token = new RecordCursor(Long.MAX_VALUE, Sort.Direction.DESC).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    // Test: The first slice starts before the smallest id ascending and after the largest id descending
+    @Test
+    void testFirst() {
+        assertEquals(new RecordCursor(0L, Sort.Direction.ASC), RecordCursor.first(Sort.Direction.ASC));
+        assertEquals(new RecordCursor(Long.MAX_VALUE, Sort.Direction.DESC), RecordCursor.first(Sort.Direction.DESC));
+    }
+
+    // Test: Tokens that are not Base64 at all are rejected
+    @Test
+    void testDecodeInvalidBase64() {
+        OperationException exception = assertThrows(OperationException.class, () -> RecordCursor.decode("not a cursor!"));
+        assertEquals("Invalid cursor", exception.getMessage());
+        assertThrows(OperationException.class, () -> RecordCursor.decode(""));
+    }
+
+    // Test: Tokens edited by the client are rejected instead of seeking to an arbitrary position
+    @Test
+    void testDecodeTamperedToken() {
+        assertThrows(OperationException.class, () -> RecordCursor.decode(token("v2:42:ASC")));
+        assertThrows(OperationException.class, () -> RecordCursor.decode(token("v1:42")));
+        assertThrows(OperationException.class, () -> RecordCursor.decode(token("v1:42:ASC:extra")));
+        assertThrows(OperationException.class, () -> RecordCursor.decode(token("v1:abc:ASC")));
+        assertThrows(OperationException.class, () -> RecordCursor.decode(token("v1:42:SIDEWAYS")));
+    }
+
+    private static String token(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package com.br.calculator.services;
+
+import com.br.calculator.dto.RecordResponse;
+import com.br.calculator.entities.User;
+import com.br.calculator.enums.ExportFormatEnum;
+import com.br.calculator.exceptions.OperationException;
+import com.br.calculator.repositories.RecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecordExportServiceTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 12, 30, 15);
+
+    @Mock
+    private RecordRepository recordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RecordExportService recordExportService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        recordExportService = new RecordExportService(recordRepository, objectMapper, transactionManager);
+        user = new User();
+        user.setId(1L);
+        when(recordRepository.streamRecordResponses(eq(1L), any(), any())).thenAnswer(invocation -> Stream.of(
+                new RecordResponse(1L, 1L, "ADDITION", 1, 199, DATE),
+                new RecordResponse(2L, 2L, "DIVISION", 4, 195, DATE)));
+    }
+
+    // Test: NDJSON export writes one JSON object per line
+    @Test
+    void testExportNdjson() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        recordExportService.export(user, ExportFormatEnum.NDJSON, null, null, false).writeTo(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[1].contains("\"operationType\":\"DIVISION\""));
+        assertTrue(lines[1].contains("\"date\":\"2024-03-01T12:30:15\""));
+    }
+
+    // Test: CSV export writes a header and one row per record, gzipped when asked
+    @Test
+    void testExportCsvGzip() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        recordExportService.export(user, ExportFormatEnum.CSV, null, null, true).writeTo(output);
+
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())).readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals("id,operationType,operationCost,userBalance,date\n" +
+                "1,ADDITION,1,199,2024-03-01T12:30:15\n" +
+                "2,DIVISION,4,195,2024-03-01T12:30:15\n", csv);
+    }
+
+    // Test: Date bounds are passed to the cursor, and an empty range is refused before streaming
+    @Test
+    void testExportDateRange() throws Exception {
+        LocalDateTime from = DATE.minusDays(1);
+
+        recordExportService.export(user, ExportFormatEnum.CSV, from, DATE, false).writeTo(new ByteArrayOutputStream());
+
+        verify(recordRepository).streamRecordResponses(1L, from, DATE);
+        assertThrows(OperationException.class, () -> recordExportService.export(user, ExportFormatEnum.CSV, DATE, from, false));
+    }
+}
@@ -3,6 +3,8 @@ package com.br.calculator.services;
 import com.br.calculator.entities.User;
 import com.br.calculator.exceptions.UserException;
 import com.br.calculator.repositories.UserRepository;
+import com.br.calculator.security.jwt.JwtPrincipalCache;
+import com.br.calculator.security.jwt.TokenRevocationList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -13,6 +15,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Optional;
 
 import static com.br.calculator.enums.UserStatusEnum.ACTIVE;
+import static com.br.calculator.enums.UserStatusEnum.INACTIVE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -24,6 +27,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private JwtPrincipalCache jwtPrincipalCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -122,4 +131,32 @@ class UserServiceTest {
         UserException exception = assertThrows(UserException.class, () -> userService.doLogin(user));
         assertEquals("Invalid credentials", exception.getMessage());
     }
+
+    // Test: A status change revokes the user's earlier tokens and their cached principals
+    @Test
+    void testUpdateStatus_RevokesTokens() {
+        user.setId(7L);
+        user.setStatus(ACTIVE);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        User updated = userService.updateStatus(7L, INACTIVE);
+
+        assertEquals(INACTIVE, updated.getStatus());
+        verify(userRepository).save(user);
+        verify(tokenRevocationList).revokeUser(7L);
+        verify(jwtPrincipalCache).evictUser(7L);
+    }
+
+    // Test: Setting the current status again leaves the tokens alone
+    @Test
+    void testUpdateStatus_Unchanged() {
+        user.setId(7L);
+        user.setStatus(ACTIVE);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        userService.updateStatus(7L, ACTIVE);
+
+        verify(userRepository, never()).save(any());
+        verifyNoInteractions(tokenRevocationList, jwtPrincipalCache);
+    }
 }
@@ -0,0 +1,98 @@
+package com.br.calculator.services;
+
+import com.br.calculator.dto.OperationTypeTotals;
+import com.br.calculator.entities.UserOperationStats;
+import com.br.calculator.entities.UserOperationStatsId;
+import com.br.calculator.enums.OperationTypeEnum;
+import com.br.calculator.repositories.RecordRepository;
+import com.br.calculator.repositories.UserOperationStatsRepository;
+import com.br.calculator.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserStatsReconcilerTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2024, 1, 1, 10, 0);
+    private static final LocalDateTime LAST = LocalDateTime.of(2024, 2, 1, 10, 0);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RecordRepository recordRepository;
+
+    @Mock
+    private UserOperationStatsRepository userOperationStatsRepository;
+
+    private UserStatsReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reconciler = new UserStatsReconciler(userRepository, recordRepository, userOperationStatsRepository, 2);
+    }
+
+    private static UserOperationStats stats(Long userId, OperationTypeEnum operationType, long count, long spent) {
+        return new UserOperationStats(new UserOperationStatsId(userId, operationType), count, spent, FIRST, LAST, 0L);
+    }
+
+    // Test: Rows matching the records are left alone, drifted rows are corrected
+    @Test
+    void testReconcile_FixesDriftedRows() {
+        UserOperationStats matching = stats(1L, OperationTypeEnum.ADDITION, 2L, 2L);
+        UserOperationStats drifted = stats(2L, OperationTypeEnum.DIVISION, 5L, 20L);
+        UserOperationStats orphan = stats(2L, OperationTypeEnum.SQUARE_ROOT, 1L, 5L);
+        when(userOperationStatsRepository.findByIdUserIdBetween(1L, 2L)).thenReturn(List.of(matching, drifted, orphan));
+        when(recordRepository.sumByUserAndType(1L, 2L)).thenReturn(List.of(
+                new OperationTypeTotals(1L, OperationTypeEnum.ADDITION, 2L, 2L, FIRST, LAST),
+                new OperationTypeTotals(2L, OperationTypeEnum.DIVISION, 4L, 16L, FIRST, LAST)));
+
+        assertEquals(2, reconciler.reconcile(1L, 2L));
+
+        verify(userOperationStatsRepository, never()).save(matching);
+        verify(userOperationStatsRepository).save(drifted);
+        verify(userOperationStatsRepository).save(orphan);
+        assertEquals(4L, drifted.getOperationCount());
+        assertEquals(16L, drifted.getSpent());
+        assertEquals(0L, orphan.getOperationCount());
+        assertNull(orphan.getLastOperationAt());
+    }
+
+    // Test: A row changed by an operation during the reconcile is skipped, not overwritten
+    @Test
+    void testReconcile_SkipsConcurrentlyUpdatedRows() {
+        UserOperationStats drifted = stats(1L, OperationTypeEnum.ADDITION, 3L, 3L);
+        when(userOperationStatsRepository.findByIdUserIdBetween(1L, 1L)).thenReturn(List.of(drifted));
+        when(recordRepository.sumByUserAndType(1L, 1L)).thenReturn(List.of());
+        when(userOperationStatsRepository.save(drifted)).thenThrow(new ObjectOptimisticLockingFailureException(UserOperationStats.class, drifted.getId()));
+
+        assertEquals(0, reconciler.reconcile(1L, 1L));
+    }
+
+    // Test: Users are walked in chunks of the configured size
+    @Test
+    void testReconcileAll_WalksUsersInChunks() {
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(userRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(userRepository.findIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(userOperationStatsRepository.findByIdUserIdBetween(any(), any())).thenReturn(List.of());
+
+        reconciler.reconcileAll();
+
+        verify(userOperationStatsRepository).findByIdUserIdBetween(1L, 2L);
+        verify(userOperationStatsRepository).findByIdUserIdBetween(3L, 3L);
+        verifyNoInteractions(recordRepository);
+    }
+}